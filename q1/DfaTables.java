@@ -0,0 +1,323 @@
+
+
+final class DfaTables {
+
+	static final int C_OTHER = 0;
+	static final int C_WS = 1;
+	static final int C_DOLLAR = 2;
+	static final int C_AT = 3;
+	static final int C_PERCENT = 4;
+	static final int C_DQUOTE = 5;
+	static final int C_SQUOTE = 6;
+	static final int C_BACKSLASH = 7;
+	static final int C_DOT = 8;
+	static final int C_SIGN = 9;
+	static final int C_AMP = 10;
+	static final int C_PIPE = 11;
+	static final int C_SYM = 12;
+	static final int C_UNDERSCORE = 13;
+	static final int C_0 = 14;
+	static final int C_1 = 15;
+	static final int C_2_7 = 16;
+	static final int C_8_9 = 17;
+	static final int C_HEX_LOWER = 18;
+	static final int C_b = 19;
+	static final int C_e = 20;
+	static final int C_f = 21;
+	static final int C_l = 22;
+	static final int C_u = 23;
+	static final int C_x = 24;
+	static final int C_p = 25;
+	static final int C_ESC_LOWER = 26;
+	static final int C_LOWER = 27;
+	static final int C_HEX_UPPER = 28;
+	static final int C_B = 29;
+	static final int C_E = 30;
+	static final int C_F = 31;
+	static final int C_L = 32;
+	static final int C_U = 33;
+	static final int C_X = 34;
+	static final int C_P = 35;
+	static final int C_UPPER = 36;
+	static final int C_QUESTION = 37;
+	static final int C_a = 38;
+	static final int CLASS_COUNT = 39;
+
+	static final int REJECT = 0;
+	static final int START = 1;
+	static final int SIGIL = 2;
+	static final int ID = 3;
+	static final int TYPE = 4;
+	static final int SYM = 5;
+	static final int AMP = 6;
+	static final int AND = 7;
+	static final int PIPE = 8;
+	static final int OR = 9;
+	static final int STR = 10;
+	static final int STR_ESC = 11;
+	static final int STR_HEX = 12;
+	static final int STR_END = 13;
+	static final int CHR = 14;
+	static final int CHR_BODY = 15;
+	static final int CHR_ESC = 16;
+	static final int CHR_HEX = 17;
+	static final int CHR_HEX_MORE = 18;
+	static final int CHR_OCT1 = 19;
+	static final int CHR_OCT2 = 20;
+	static final int CHR_END = 21;
+	static final int DOT = 22;
+	static final int FRAC = 23;
+	static final int EXP = 24;
+	static final int EXP_SIGN = 25;
+	static final int EXP_DIGITS = 26;
+	static final int FLOAT_SUFFIX = 27;
+	static final int DEC = 28;
+	static final int ZERO = 29;
+	static final int OCT = 30;
+	static final int OCT_DEC = 31;
+	static final int HEX_PREFIX = 32;
+	static final int HEX = 33;
+	static final int HEX_DOT = 34;
+	static final int HEX_FRAC = 35;
+	static final int BIN_PREFIX = 36;
+	static final int BIN = 37;
+	static final int SUFFIX_U = 38;
+	static final int SUFFIX_l = 39;
+	static final int SUFFIX_ll = 40;
+	static final int SUFFIX_L = 41;
+	static final int SUFFIX_LL = 42;
+	static final int STR_HEX_LEFT = 43;
+	static final int CHR_HEX_LEFT = 51;
+	static final int STATE_COUNT = 59;
+
+	static final int A_NONE = 0;
+	static final int A_ID = 1;
+	static final int A_TYPE = 2;
+	static final int A_SYMBOL = 3;
+	static final int A_QUOTED = 4;
+	static final int A_NUMBER = 5;
+
+	static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+	static final byte[] TRANSITIONS = new byte[STATE_COUNT * CLASS_COUNT];
+	static final byte[] ACTIONS = new byte[STATE_COUNT];
+	static final TokenType[] TYPES = new TokenType[STATE_COUNT];
+	static final TokenType[] SYMBOL_TYPES = new TokenType[128];
+
+	private static final int[] DIGITS = { C_0, C_1, C_2_7, C_8_9 };
+	private static final int[] OCTAL_DIGITS = { C_0, C_1, C_2_7 };
+	private static final int[] BINARY_DIGITS = { C_0, C_1 };
+	private static final int[] HEX_DIGITS = { C_0, C_1, C_2_7, C_8_9, C_a, C_HEX_LOWER, C_b, C_e, C_f, C_HEX_UPPER, C_B, C_E, C_F };
+	private static final int[] LOWERCASE = { C_a, C_HEX_LOWER, C_b, C_e, C_f, C_l, C_u, C_x, C_p, C_ESC_LOWER, C_LOWER };
+	private static final int[] UPPERCASE = { C_HEX_UPPER, C_B, C_E, C_F, C_L, C_U, C_X, C_P, C_UPPER };
+	private static final int[] SIMPLE_ESCAPES = { C_a, C_b, C_f, C_ESC_LOWER, C_BACKSLASH, C_QUESTION, C_SQUOTE, C_DQUOTE };
+	private static final int[] FLOAT_SUFFIXES = { C_f, C_F, C_l, C_L };
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++)
+			CLASSES[c] = C_LOWER;
+		for (char c = 'A'; c <= 'Z'; c++)
+			CLASSES[c] = C_UPPER;
+		classify("a", C_a);
+		classify("cd", C_HEX_LOWER);
+		classify("ACD", C_HEX_UPPER);
+		classify("nrtv", C_ESC_LOWER);
+		classify("b", C_b);
+		classify("e", C_e);
+		classify("f", C_f);
+		classify("l", C_l);
+		classify("u", C_u);
+		classify("x", C_x);
+		classify("p", C_p);
+		classify("B", C_B);
+		classify("E", C_E);
+		classify("F", C_F);
+		classify("L", C_L);
+		classify("U", C_U);
+		classify("X", C_X);
+		classify("P", C_P);
+		classify("0", C_0);
+		classify("1", C_1);
+		classify("234567", C_2_7);
+		classify("89", C_8_9);
+		classify(" \t\r\n\013\f", C_WS);
+		classify("$", C_DOLLAR);
+		classify("@", C_AT);
+		classify("%", C_PERCENT);
+		classify("\"", C_DQUOTE);
+		classify("'", C_SQUOTE);
+		classify("\\", C_BACKSLASH);
+		classify("?", C_QUESTION);
+		classify(".", C_DOT);
+		classify("+-", C_SIGN);
+		classify("&", C_AMP);
+		classify("|", C_PIPE);
+		classify("*/{}[]()", C_SYM);
+		classify("_", C_UNDERSCORE);
+
+		symbol('(', TokenType.SM_LPAREN);
+		symbol(')', TokenType.SM_RPAREN);
+		symbol('[', TokenType.SM_LBRACKET);
+		symbol(']', TokenType.SM_RBRACKET);
+		symbol('{', TokenType.SM_LBRACE);
+		symbol('}', TokenType.SM_RBRACE);
+		symbol('+', TokenType.SM_PLUS);
+		symbol('-', TokenType.SM_MINUS);
+		symbol('*', TokenType.SM_ASTERISK);
+		symbol('/', TokenType.SM_SLASH);
+
+		on(START, new int[] { C_DOLLAR, C_AT, C_PERCENT }, SIGIL);
+		on(START, UPPERCASE, TYPE);
+		on(START, new int[] { C_SYM, C_SIGN }, SYM);
+		on(START, C_AMP, AMP);
+		on(START, C_PIPE, PIPE);
+		on(START, C_DQUOTE, STR);
+		on(START, C_SQUOTE, CHR);
+		on(START, C_DOT, DOT);
+		on(START, C_0, ZERO);
+		on(START, new int[] { C_1, C_2_7, C_8_9 }, DEC);
+
+		on(SIGIL, LOWERCASE, ID);
+		on(SIGIL, UPPERCASE, ID);
+		on(SIGIL, DIGITS, ID);
+		on(SIGIL, C_UNDERSCORE, ID);
+		on(ID, LOWERCASE, ID);
+		on(ID, UPPERCASE, ID);
+		on(ID, DIGITS, ID);
+		on(ID, C_UNDERSCORE, ID);
+		on(TYPE, LOWERCASE, TYPE);
+		on(AMP, C_AMP, AND);
+		on(PIPE, C_PIPE, OR);
+
+		for (int c = 0; c < CLASS_COUNT; c++) {
+			on(STR, c, STR);
+			on(CHR, c, CHR_BODY);
+		}
+		on(STR, C_DQUOTE, STR_END);
+		on(STR, C_BACKSLASH, STR_ESC);
+		on(STR_ESC, SIMPLE_ESCAPES, STR);
+		on(STR_ESC, OCTAL_DIGITS, STR);
+		on(STR_ESC, C_x, STR_HEX);
+		on(STR_ESC, C_u, STR_HEX_LEFT + 3);
+		on(STR_ESC, C_U, STR_HEX_LEFT + 7);
+		on(STR_HEX, HEX_DIGITS, STR);
+		on(STR_HEX_LEFT, HEX_DIGITS, STR);
+		for (int i = 1; i < 8; i++)
+			on(STR_HEX_LEFT + i, HEX_DIGITS, STR_HEX_LEFT + i - 1);
+
+		on(CHR, C_BACKSLASH, CHR_ESC);
+		on(CHR_BODY, C_SQUOTE, CHR_END);
+		on(CHR_ESC, SIMPLE_ESCAPES, CHR_BODY);
+		on(CHR_ESC, OCTAL_DIGITS, CHR_OCT1);
+		on(CHR_ESC, C_x, CHR_HEX);
+		on(CHR_ESC, C_u, CHR_HEX_LEFT + 3);
+		on(CHR_ESC, C_U, CHR_HEX_LEFT + 7);
+		on(CHR_OCT1, OCTAL_DIGITS, CHR_OCT2);
+		on(CHR_OCT1, C_SQUOTE, CHR_END);
+		on(CHR_OCT2, OCTAL_DIGITS, CHR_BODY);
+		on(CHR_OCT2, C_SQUOTE, CHR_END);
+		on(CHR_HEX, HEX_DIGITS, CHR_HEX_MORE);
+		on(CHR_HEX_MORE, HEX_DIGITS, CHR_HEX_MORE);
+		on(CHR_HEX_MORE, C_SQUOTE, CHR_END);
+		on(CHR_HEX_LEFT, HEX_DIGITS, CHR_BODY);
+		for (int i = 1; i < 8; i++)
+			on(CHR_HEX_LEFT + i, HEX_DIGITS, CHR_HEX_LEFT + i - 1);
+
+		on(DOT, DIGITS, FRAC);
+		on(FRAC, DIGITS, FRAC);
+		on(FRAC, new int[] { C_e, C_E }, EXP);
+		on(FRAC, FLOAT_SUFFIXES, FLOAT_SUFFIX);
+		on(EXP, C_SIGN, EXP_SIGN);
+		on(EXP, DIGITS, EXP_DIGITS);
+		on(EXP_SIGN, DIGITS, EXP_DIGITS);
+		on(EXP_DIGITS, DIGITS, EXP_DIGITS);
+		on(EXP_DIGITS, FLOAT_SUFFIXES, FLOAT_SUFFIX);
+
+		on(DEC, DIGITS, DEC);
+		on(DEC, C_DOT, FRAC);
+		on(DEC, new int[] { C_e, C_E }, EXP);
+		intSuffixes(DEC);
+
+		on(ZERO, OCTAL_DIGITS, OCT);
+		on(ZERO, C_8_9, OCT_DEC);
+		on(ZERO, C_DOT, FRAC);
+		on(ZERO, new int[] { C_e, C_E }, EXP);
+		on(ZERO, new int[] { C_x, C_X }, HEX_PREFIX);
+		on(ZERO, new int[] { C_b, C_B }, BIN_PREFIX);
+		intSuffixes(ZERO);
+		on(OCT, OCTAL_DIGITS, OCT);
+		on(OCT, C_8_9, OCT_DEC);
+		on(OCT, C_DOT, FRAC);
+		on(OCT, new int[] { C_e, C_E }, EXP);
+		intSuffixes(OCT);
+		on(OCT_DEC, DIGITS, OCT_DEC);
+		on(OCT_DEC, C_DOT, FRAC);
+		on(OCT_DEC, new int[] { C_e, C_E }, EXP);
+		on(OCT_DEC, FLOAT_SUFFIXES, FLOAT_SUFFIX);
+
+		on(HEX_PREFIX, HEX_DIGITS, HEX);
+		on(HEX_PREFIX, C_DOT, HEX_DOT);
+		on(HEX, HEX_DIGITS, HEX);
+		on(HEX, C_DOT, HEX_FRAC);
+		on(HEX, new int[] { C_p, C_P }, EXP);
+		intSuffixes(HEX);
+		on(HEX_DOT, HEX_DIGITS, HEX_FRAC);
+		on(HEX_FRAC, HEX_DIGITS, HEX_FRAC);
+		on(HEX_FRAC, new int[] { C_p, C_P }, EXP);
+
+		on(BIN_PREFIX, BINARY_DIGITS, BIN);
+		on(BIN, BINARY_DIGITS, BIN);
+		intSuffixes(BIN);
+
+		on(SUFFIX_l, C_l, SUFFIX_ll);
+		on(SUFFIX_l, new int[] { C_u, C_U }, SUFFIX_U);
+		on(SUFFIX_ll, new int[] { C_u, C_U }, SUFFIX_U);
+		on(SUFFIX_L, C_L, SUFFIX_LL);
+		on(SUFFIX_L, new int[] { C_u, C_U }, SUFFIX_U);
+		on(SUFFIX_LL, new int[] { C_u, C_U }, SUFFIX_U);
+
+		accept(ID, A_ID, null);
+		accept(TYPE, A_TYPE, null);
+		accept(SYM, A_SYMBOL, null);
+		accept(AND, A_SYMBOL, TokenType.SM_LOGICAL_AND);
+		accept(OR, A_SYMBOL, TokenType.SM_LOGICAL_OR);
+		accept(STR_END, A_QUOTED, TokenType.STRING_LITERAL);
+		accept(CHR_END, A_QUOTED, TokenType.CHARACTER_LITERAL);
+		for (int state : new int[] { DEC, ZERO, OCT, HEX, BIN, SUFFIX_U, SUFFIX_l, SUFFIX_ll, SUFFIX_L, SUFFIX_LL })
+			accept(state, A_NUMBER, TokenType.INTEGER_LITERAL);
+		for (int state : new int[] { FRAC, EXP_DIGITS, FLOAT_SUFFIX, OCT_DEC })
+			accept(state, A_NUMBER, TokenType.FLOATING_POINT_LITERAL);
+	}
+
+	private DfaTables() {
+	}
+
+	private static void classify(String chars, int cls) {
+		for (int i = 0; i < chars.length(); i++)
+			CLASSES[chars.charAt(i)] = (byte) cls;
+	}
+
+	private static void symbol(char c, TokenType type) {
+		SYMBOL_TYPES[c] = type;
+	}
+
+	private static void on(int state, int cls, int next) {
+		TRANSITIONS[state * CLASS_COUNT + cls] = (byte) next;
+	}
+
+	private static void on(int state, int[] classes, int next) {
+		for (int cls : classes)
+			on(state, cls, next);
+	}
+
+	private static void intSuffixes(int state) {
+		on(state, new int[] { C_u, C_U }, SUFFIX_U);
+		on(state, C_l, SUFFIX_l);
+		on(state, C_L, SUFFIX_L);
+	}
+
+	private static void accept(int state, int action, TokenType type) {
+		ACTIONS[state] = (byte) action;
+		TYPES[state] = type;
+	}
+
+}
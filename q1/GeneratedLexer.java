@@ -0,0 +1,562 @@
+// Generated by LexerGenerator from ebnf_terminals.txt. Do not edit.
+
+import java.nio.file.Path;
+
+public class GeneratedLexer {
+
+	private Path file;
+	private int line = 1;
+	private int col = 1;
+	private int counted;
+	private CharSequence input;
+	private int length;
+	private int current;
+	private int start;
+
+	public GeneratedLexer(Path file, CharSequence input) {
+		this.file = file;
+		this.input = input;
+		this.length = input.length();
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public boolean hasNext() {
+		skipWhitespace();
+		return current < length;
+	}
+
+	public Token nextToken() {
+		skipWhitespace();
+		if (current >= length)
+			return null;
+		start = current;
+		return token(scan());
+	}
+
+	private void skipWhitespace() {
+		char c;
+		while (current < length && ((c = input.charAt(current)) == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\013' || c == '\f'))
+			current++;
+	}
+
+	private char peek(int ahead) {
+		int pos = current + ahead;
+		return pos < length ? input.charAt(pos) : (char) -1;
+	}
+
+	private String word() {
+		int end = current + 1;
+		while (end < length && isLowercaseLetter(input.charAt(end)))
+			end++;
+		return input.subSequence(current, end).toString();
+	}
+
+	private static boolean isLowercaseLetter(char c) {
+		return c >= 'a' && c <= 'z';
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexDigit(char c) {
+		return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || isDigit(c);
+	}
+
+	private Token token(TokenType type) {
+		for (; counted < start; counted++) {
+			if (input.charAt(counted) == '\n') {
+				line++;
+				col = 1;
+			} else {
+				col++;
+			}
+		}
+		int from = start;
+		int to = current;
+		if (type == TokenType.STRING_LITERAL || type == TokenType.CHARACTER_LITERAL) {
+			from++;
+			to--;
+		}
+		if ((type == TokenType.INTEGER_LITERAL || type == TokenType.FLOATING_POINT_LITERAL) && to - from > 2
+				&& (input.charAt(from + 1) == 'x' || input.charAt(from + 1) == 'X') && input.charAt(from + 2) != '.')
+			from += 2;
+		return new Token(type, input.subSequence(from, to).toString(), new SourceMeta(file, line, col));
+	}
+
+	private TokenType scan() {
+		char c = input.charAt(current);
+		switch (c) {
+		case '!':
+			current++;
+			return TokenType.SM_LOGICAL_NOT;
+		case '"':
+			return stringLiteral();
+		case '$':
+			if (isIdentifierPart(peek(1)))
+				return identifier(c);
+			throw new IllegalStateException("Invalid scalar identifier");
+		case '%':
+			if (isIdentifierPart(peek(1)))
+				return identifier(c);
+			current++;
+			return TokenType.SM_PERCENT;
+		case '&':
+			switch (peek(1)) {
+			case '&':
+				current += 2;
+				return TokenType.SM_LOGICAL_AND;
+			}
+			throw new IllegalStateException("Invalid symbol &");
+		case '\'':
+			return charLiteral();
+		case '(':
+			current++;
+			return TokenType.SM_LPAREN;
+		case ')':
+			current++;
+			return TokenType.SM_RPAREN;
+		case '*':
+			current++;
+			return TokenType.SM_ASTERISK;
+		case '+':
+			current++;
+			return TokenType.SM_PLUS;
+		case '-':
+			current++;
+			return TokenType.SM_MINUS;
+		case '.':
+		case '0':
+		case '1':
+		case '2':
+		case '3':
+		case '4':
+		case '5':
+		case '6':
+		case '7':
+		case '8':
+		case '9':
+			return number();
+		case '/':
+			current++;
+			return TokenType.SM_SLASH;
+		case '=':
+			current++;
+			return TokenType.SM_ASSIGN;
+		case '@':
+			if (isIdentifierPart(peek(1)))
+				return identifier(c);
+			throw new IllegalStateException("Invalid array identifier");
+		case 'C':
+			switch (peek(1)) {
+			case 'h':
+				switch (peek(2)) {
+				case 'a':
+					switch (peek(3)) {
+					case 'r':
+						switch (peek(4)) {
+						case 'a':
+							switch (peek(5)) {
+							case 'c':
+								switch (peek(6)) {
+								case 't':
+									switch (peek(7)) {
+									case 'e':
+										switch (peek(8)) {
+										case 'r':
+											if (!isLowercaseLetter(peek(9))) {
+												current += 9;
+												return TokenType.TYPE_CHARACTER;
+											}
+											break;
+										}
+										break;
+									}
+									break;
+								}
+								break;
+							}
+							break;
+						}
+						break;
+					}
+					break;
+				}
+				break;
+			}
+			throw new IllegalStateException("Invalid type " + word());
+		case 'F':
+			switch (peek(1)) {
+			case 'l':
+				switch (peek(2)) {
+				case 'o':
+					switch (peek(3)) {
+					case 'a':
+						switch (peek(4)) {
+						case 't':
+							if (!isLowercaseLetter(peek(5))) {
+								current += 5;
+								return TokenType.TYPE_FLOAT;
+							}
+							break;
+						}
+						break;
+					}
+					break;
+				}
+				break;
+			}
+			throw new IllegalStateException("Invalid type " + word());
+		case 'I':
+			switch (peek(1)) {
+			case 'n':
+				switch (peek(2)) {
+				case 't':
+					switch (peek(3)) {
+					case 'e':
+						switch (peek(4)) {
+						case 'g':
+							switch (peek(5)) {
+							case 'e':
+								switch (peek(6)) {
+								case 'r':
+									if (!isLowercaseLetter(peek(7))) {
+										current += 7;
+										return TokenType.TYPE_INTEGER;
+									}
+									break;
+								}
+								break;
+							}
+							break;
+						}
+						break;
+					}
+					break;
+				}
+				break;
+			}
+			throw new IllegalStateException("Invalid type " + word());
+		case 'S':
+			switch (peek(1)) {
+			case 't':
+				switch (peek(2)) {
+				case 'r':
+					switch (peek(3)) {
+					case 'i':
+						switch (peek(4)) {
+						case 'n':
+							switch (peek(5)) {
+							case 'g':
+								if (!isLowercaseLetter(peek(6))) {
+									current += 6;
+									return TokenType.TYPE_STRING;
+								}
+								break;
+							}
+							break;
+						}
+						break;
+					}
+					break;
+				}
+				break;
+			}
+			throw new IllegalStateException("Invalid type " + word());
+		case 'V':
+			switch (peek(1)) {
+			case 'o':
+				switch (peek(2)) {
+				case 'i':
+					switch (peek(3)) {
+					case 'd':
+						if (!isLowercaseLetter(peek(4))) {
+							current += 4;
+							return TokenType.TYPE_VOID;
+						}
+						break;
+					}
+					break;
+				}
+				break;
+			}
+			throw new IllegalStateException("Invalid type " + word());
+		case '[':
+			current++;
+			return TokenType.SM_LBRACKET;
+		case ']':
+			current++;
+			return TokenType.SM_RBRACKET;
+		case '{':
+			current++;
+			return TokenType.SM_LBRACE;
+		case '|':
+			switch (peek(1)) {
+			case '|':
+				current += 2;
+				return TokenType.SM_LOGICAL_OR;
+			}
+			throw new IllegalStateException("Invalid symbol |");
+		case '}':
+			current++;
+			return TokenType.SM_RBRACE;
+		}
+		if (c >= 'A' && c <= 'Z')
+			throw new IllegalStateException("Invalid type " + word());
+		throw new IllegalStateException("Invalid input " + c);
+	}
+
+	private TokenType identifier(char sigil) {
+		boolean isPrivate = input.charAt(current + 1) == '_';
+		current += 2;
+		while (isIdentifierPart(peek(0)))
+			current++;
+		if (sigil == '$')
+			return isPrivate ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
+		else if (sigil == '@')
+			return isPrivate ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
+		else
+			return isPrivate ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
+	}
+
+	private TokenType number() {
+		char c = peek(0);
+		current++;
+		if (c == '.')
+			return decimalFloatWithInitialDot();
+		if (c != '0')
+			return decimalOrDecimalFloat();
+		c = peek(0);
+		if (c == 'x' || c == 'X') {
+			current++;
+			return hexOrHexFloat();
+		} else if (c == 'b' || c == 'B') {
+			current++;
+			return binaryLiteral();
+		}
+		return octalOrDecimalFloat();
+	}
+
+	private TokenType decimalOrDecimalFloat() {
+		char c;
+		while (isDigit(c = peek(0)))
+			current++;
+		if (c == '.') {
+			current++;
+			while (isDigit(peek(0)))
+				current++;
+			if ((c = peek(0)) == 'e' || c == 'E')
+				exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		} else if (c == 'e' || c == 'E') {
+			exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		}
+		intSuffix();
+		return TokenType.INTEGER_LITERAL;
+	}
+
+	private TokenType octalOrDecimalFloat() {
+		char c;
+		while ((c = peek(0)) >= '0' && c <= '7')
+			current++;
+		if (isDigit(c) || c == '.') {
+			while (isDigit(c = peek(0)))
+				current++;
+			if (c == '.') {
+				current++;
+				while (isDigit(peek(0)))
+					current++;
+			}
+			if ((c = peek(0)) == 'e' || c == 'E')
+				exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		} else if (c == 'e' || c == 'E') {
+			exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		}
+		intSuffix();
+		return TokenType.INTEGER_LITERAL;
+	}
+
+	private TokenType decimalFloatWithInitialDot() {
+		digits();
+		char c = peek(0);
+		if (c == 'e' || c == 'E')
+			exponent();
+		floatSuffix();
+		return TokenType.FLOATING_POINT_LITERAL;
+	}
+
+	private TokenType hexOrHexFloat() {
+		char c = peek(0);
+		if (c == '.') {
+			current++;
+			if (!isHexDigit(peek(0)))
+				throw new IllegalStateException("Invalid hexadecimal floating-point literal");
+			while (isHexDigit(peek(0)))
+				current++;
+			return hexExponent();
+		} else if (!isHexDigit(c)) {
+			throw new IllegalStateException("Invalid hexadecimal integer literal");
+		}
+		while (isHexDigit(c = peek(0)))
+			current++;
+		if (c == '.') {
+			current++;
+			while (isHexDigit(peek(0)))
+				current++;
+		} else if (c != 'p' && c != 'P') {
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
+		}
+		return hexExponent();
+	}
+
+	private TokenType hexExponent() {
+		char c = peek(0);
+		if (c != 'p' && c != 'P')
+			throw new IllegalStateException("Invalid hexadecimal floating-point literal exponent");
+		exponent();
+		floatSuffix();
+		return TokenType.FLOATING_POINT_LITERAL;
+	}
+
+	private TokenType binaryLiteral() {
+		if (!isBinaryDigit(peek(0)))
+			throw new IllegalStateException("Invalid binary integer literal");
+		while (isBinaryDigit(peek(0)))
+			current++;
+		intSuffix();
+		return TokenType.INTEGER_LITERAL;
+	}
+
+	private void exponent() {
+		current++;
+		char c = peek(0);
+		if (c == '+' || c == '-')
+			current++;
+		digits();
+	}
+
+	private void digits() {
+		if (!isDigit(peek(0)))
+			throw new IllegalStateException("Invalid integer literal");
+		while (isDigit(peek(0)))
+			current++;
+	}
+
+	private void intSuffix() {
+		char c = peek(0);
+		if (c == 'u' || c == 'U') {
+			current++;
+			return;
+		} else if (c != 'l' && c != 'L') {
+			return;
+		}
+		current++;
+		if (peek(0) == c)
+			current++;
+		c = peek(0);
+		if (c == 'u' || c == 'U')
+			current++;
+	}
+
+	private void floatSuffix() {
+		char c = peek(0);
+		if (c == 'f' || c == 'F' || c == 'l' || c == 'L')
+			current++;
+	}
+
+	private static boolean isBinaryDigit(char c) {
+		return c == '0' || c == '1';
+	}
+
+	private TokenType stringLiteral() {
+		current++;
+		char c;
+		while ((c = peek(0)) != '"') {
+			if (current >= length)
+				throw new IllegalStateException("Unterminated string literal");
+			current++;
+			if (c == '\\')
+				escape();
+		}
+		current++;
+		return TokenType.STRING_LITERAL;
+	}
+
+	private TokenType charLiteral() {
+		current++;
+		if (current >= length)
+			throw new IllegalStateException("Invalid character literal");
+		char c = peek(0);
+		current++;
+		if (c == '\\')
+			escape();
+		if (peek(0) != '\'')
+			throw new IllegalStateException("Invalid character literal");
+		current++;
+		return TokenType.CHARACTER_LITERAL;
+	}
+
+	private void escape() {
+		char c = peek(0);
+		current++;
+		switch (c) {
+		case 'a':
+		case 'b':
+		case 'f':
+		case 'n':
+		case 'r':
+		case 't':
+		case 'v':
+		case '\\':
+		case '?':
+		case '\'':
+		case '"':
+			return;
+		case 'x':
+			hexEscape();
+			return;
+		case 'u':
+			hexDigits(4);
+			return;
+		case 'U':
+			hexDigits(8);
+			return;
+		default:
+			if (c < '0' || c > '7')
+				throw new IllegalStateException("Invalid escape sequence '\\" + c + "'");
+			for (int i = 1; i < 3 && (c = peek(0)) >= '0' && c <= '7'; i++)
+				current++;
+		}
+	}
+
+	private void hexEscape() {
+		if (!isHexDigit(peek(0)))
+			throw new IllegalStateException("Invalid hexadecimal escape sequence");
+		while (isHexDigit(peek(0)))
+			current++;
+	}
+
+	private void hexDigits(int count) {
+		for (int i = 0; i < count; i++) {
+			if (!isHexDigit(peek(0)))
+				throw new IllegalStateException("Invalid unicode escape sequence");
+			current++;
+		}
+	}
+
+}
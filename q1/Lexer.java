@@ -7,12 +7,18 @@ public class Lexer {
 	private int line;
 	private int col;
 	private Path file;
+	private boolean tableDriven;
 	
 	public Lexer(Path file, CharSequence input) {
+		this(file, input, false);
+	}
+	
+	public Lexer(Path file, CharSequence input, boolean tableDriven) {
 		this.file = file;
 		this.input = input;
 		this.line = 1;
 		this.col = 1;
+		this.tableDriven = tableDriven;
 	}
 	
 	public Path getFile() {
@@ -28,8 +34,18 @@ public class Lexer {
 	}
 	
 	private void advance() {
+		if (get() == '\n') {
+			line++;
+			col = 1;
+		} else {
+			col++;
+		}
 		current++;
-		col++;
+	}
+	
+	private void advanceTo(int pos) {
+		while (current < pos)
+			advance();
 	}
 	
 	private void retract() {
@@ -141,6 +157,10 @@ public class Lexer {
 	}
 	
 	public Token nextToken() {
+		return tableDriven ? tableToken() : scan();
+	}
+	
+	private Token scan() {
 		while (hasNext() && isWhitespace(get()))
 			advance();
 		
@@ -169,6 +189,66 @@ public class Lexer {
 			throw new IllegalStateException("Invalid input " + c);
 	}
 	
+	private Token tableToken() {
+		CharSequence in = input;
+		int n = in.length();
+		byte[] classes = DfaTables.CLASSES;
+		byte[] transitions = DfaTables.TRANSITIONS;
+		
+		int pos = current;
+		while (pos < n && classes[in.charAt(pos)] == DfaTables.C_WS)
+			pos++;
+		advanceTo(pos);
+		if (pos == n)
+			return null;
+		
+		int state = DfaTables.START;
+		int next;
+		while (pos < n && (next = transitions[state * DfaTables.CLASS_COUNT + classes[in.charAt(pos)]]) != DfaTables.REJECT) {
+			state = next;
+			pos++;
+		}
+		
+		int start = current;
+		SourceMeta m = genMeta();
+		advanceTo(pos);
+		
+		TokenType type = DfaTables.TYPES[state];
+		switch (DfaTables.ACTIONS[state]) {
+		case DfaTables.A_ID:
+			return new Token(getIdentifierType(in.charAt(start), in.charAt(start + 1)), in.subSequence(start, pos).toString(), m);
+		case DfaTables.A_TYPE:
+			String typeName = in.subSequence(start, pos).toString();
+			type = getType(typeName);
+			if (type == null)
+				throw new IllegalStateException("Invalid type " + typeName);
+			return new Token(type, typeName, m);
+		case DfaTables.A_SYMBOL:
+			return new Token(type != null ? type : DfaTables.SYMBOL_TYPES[in.charAt(start)], in.subSequence(start, pos).toString(), m);
+		case DfaTables.A_QUOTED:
+			return new Token(type, in.subSequence(start + 1, pos - 1).toString(), m);
+		case DfaTables.A_NUMBER:
+			if (pos - start > 2 && (in.charAt(start + 1) == 'x' || in.charAt(start + 1) == 'X') && in.charAt(start + 2) != '.')
+				start += 2;
+			return new Token(type, in.subSequence(start, pos).toString(), m);
+		default:
+			current = start;
+			line = m.getLine();
+			col = m.getCol();
+			return scan();
+		}
+	}
+	
+	private TokenType getIdentifierType(char sigil, char first) {
+		boolean isPrivate = first == '_';
+		if (sigil == '$')
+			return isPrivate ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
+		else if (sigil == '@')
+			return isPrivate ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
+		else
+			return isPrivate ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
+	}
+	
 	private String hexExponent() {
 		StringBuilder sb = new StringBuilder();
 		char c = get();
@@ -595,6 +675,8 @@ public class Lexer {
 		}
 		TokenType type = getSymbolType(sb.toString());
 		while (type == null) {
+			if (sb.length() == 1)
+				throw new IllegalStateException("Invalid symbol " + sb);
 			retract();
 			sb.replace(sb.length() - 1, sb.length(), "");
 			type = getSymbolType(sb.toString());
@@ -616,8 +698,11 @@ public class Lexer {
 		SourceMeta m = genMeta();
 		advance();
 		StringBuilder sb = new StringBuilder();
-		while (get() != '"')
+		while (get() != '"') {
+			if (!hasNext())
+				throw new IllegalStateException("Unterminated string literal");
 			sb.append(stringLiteralContent());
+		}
 		advance();
 		return new Token(TokenType.STRING_LITERAL, sb.toString(), m);
 	}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TableScannerTest {
+
+	static final Path FILE = Paths.get("test");
+
+	static List<String> describe(Lexer lexer) {
+		List<String> out = new ArrayList<>();
+		Token token;
+		while ((token = lexer.nextToken()) != null)
+			out.add(token.toString());
+		return out;
+	}
+
+	@Test
+	void handAndTableScannersAgree() {
+		String input = "@a && %_b || $c [ \"s\\n\" + 'c' - 0x1F * 1.5e3f / 077 ] ( 0b101 ) Integer Void\n$d";
+		assertEquals(describe(new Lexer(FILE, input, false)), describe(new Lexer(FILE, input, true)));
+	}
+
+	@Test
+	void tokensCarryTheirPosition() {
+		for (boolean tableDriven : new boolean[] { false, true }) {
+			Lexer lexer = new Lexer(FILE, "$a\n  @b", tableDriven);
+			SourceMeta first = lexer.nextToken().getMeta();
+			assertEquals(1, first.getLine());
+			assertEquals(1, first.getCol());
+			Token second = lexer.nextToken();
+			assertEquals("@b", second.getData());
+			assertEquals(2, second.getMeta().getLine());
+			assertEquals(3, second.getMeta().getCol());
+			assertNull(lexer.nextToken());
+		}
+	}
+
+	@Test
+	void handAndTableScannersReportTheSameErrors() {
+		for (String input : new String[] { "^", "$ ", "@!", "% ", "&", "|", "&+", "\"\\q\"", "\"open", "'ab'", "'\\x'", "0x", "0b2", "1e", "0x.p", "0x1.", "0b", "\"\\u12\"", "'", "Foo", "$a ~" }) {
+			String hand = assertThrows(IllegalStateException.class, () -> describe(new Lexer(FILE, input, false))).getMessage();
+			String table = assertThrows(IllegalStateException.class, () -> describe(new Lexer(FILE, input, true))).getMessage();
+			assertEquals(hand, table, input);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+
+
+public class Diagnostic {
+
+	private Enum<?> code;
+	private String message;
+	private int offset;
+	private int length;
+	private SourceMeta meta;
+	
+	public Diagnostic(Enum<?> code, String message, int offset, int length, SourceMeta meta) {
+		this.code = code;
+		this.message = message;
+		this.offset = offset;
+		this.length = length;
+		this.meta = meta;
+	}
+
+	public Enum<?> getCode() {
+		return code;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public SourceMeta getMeta() {
+		return meta;
+	}
+	
+	@Override
+	public String toString() {
+		return code.toString() + "[" + meta + "]: " + message;
+	}
+	
+}
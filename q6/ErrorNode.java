@@ -0,0 +1,15 @@
+
+
+public class ErrorNode extends Node {
+
+	private Diagnostic diagnostic;
+
+	public ErrorNode(Diagnostic diagnostic) {
+		this.diagnostic = diagnostic;
+	}
+
+	public Diagnostic getDiagnostic() {
+		return diagnostic;
+	}
+	
+}
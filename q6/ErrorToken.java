@@ -0,0 +1,21 @@
+
+
+public class ErrorToken extends Token {
+
+	private LexError code;
+
+	public ErrorToken(SourceText text, int offset, int length, LexError code) {
+		super(TokenType.ERROR, text, offset, length);
+		this.code = code;
+	}
+
+	public ErrorToken(String data, int offset, int length, SourceMeta meta, LexError code) {
+		super(TokenType.ERROR, data, offset, length, meta);
+		this.code = code;
+	}
+
+	public LexError getCode() {
+		return code;
+	}
+
+}
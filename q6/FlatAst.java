@@ -0,0 +1,201 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class FlatAst {
+
+	private static final NodeKind[] KINDS = NodeKind.values();
+
+	private TokenBuffer tokens;
+	private byte[] kinds;
+	private int[] tokenIndexes;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private int[] paddings;
+	private int[] lengths;
+	private int size;
+	private int[] errorNodes = new int[4];
+	private List<Diagnostic> diagnostics = new ArrayList<>();
+
+	public FlatAst(TokenBuffer tokens, int capacity) {
+		this.tokens = tokens;
+		this.kinds = new byte[capacity];
+		this.tokenIndexes = new int[capacity];
+		this.firstChildren = new int[capacity];
+		this.nextSiblings = new int[capacity];
+		this.paddings = new int[capacity];
+		this.lengths = new int[capacity];
+	}
+
+	int add(NodeKind kind, int token, int firstChild) {
+		if (size == kinds.length) {
+			int capacity = Math.max(16, size * 2);
+			kinds = Arrays.copyOf(kinds, capacity);
+			tokenIndexes = Arrays.copyOf(tokenIndexes, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+			paddings = Arrays.copyOf(paddings, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		kinds[size] = (byte) kind.ordinal();
+		tokenIndexes[size] = token;
+		firstChildren[size] = firstChild;
+		nextSiblings[size] = -1;
+		paddings[size] = 0;
+		lengths[size] = 0;
+		return size++;
+	}
+
+	int addError(int token, Diagnostic diagnostic) {
+		int node = add(NodeKind.ERROR, token, -1);
+		int count = diagnostics.size();
+		if (count == errorNodes.length)
+			errorNodes = Arrays.copyOf(errorNodes, count * 2);
+		errorNodes[count] = node;
+		diagnostics.add(diagnostic);
+		return node;
+	}
+
+	void link(int node, int next) {
+		nextSiblings[node] = next;
+	}
+
+	void setSpan(int node, int padding, int length) {
+		paddings[node] = padding;
+		lengths[node] = length;
+	}
+
+	public void clear() {
+		size = 0;
+		diagnostics.clear();
+	}
+
+	public TokenBuffer getTokens() {
+		return tokens;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public NodeKind getKind(int node) {
+		return KINDS[kinds[checkNode(node)]];
+	}
+
+	public int getTokenIndex(int node) {
+		return tokenIndexes[checkNode(node)];
+	}
+
+	public Token getToken(int node) {
+		int index = getTokenIndex(node);
+		return index < 0 ? null : tokens.get(index);
+	}
+
+	public int getFirstChild(int node) {
+		return firstChildren[checkNode(node)];
+	}
+
+	public int getNextSibling(int node) {
+		return nextSiblings[checkNode(node)];
+	}
+
+	public int getPadding(int node) {
+		return paddings[checkNode(node)];
+	}
+	
+	public int getLength(int node) {
+		return lengths[checkNode(node)];
+	}
+	
+	public Diagnostic getDiagnostic(int node) {
+		int index = Arrays.binarySearch(errorNodes, 0, diagnostics.size(), checkNode(node));
+		if (index < 0)
+			throw new IllegalStateException("Node " + node + " is not an error: " + getKind(node));
+		return diagnostics.get(index);
+	}
+	
+	public int getChild(int node, int n) {
+		int child = getFirstChild(node);
+		while (n-- > 0 && child >= 0)
+			child = nextSiblings[child];
+		return child;
+	}
+
+	public int getChildCount(int node) {
+		int count = 0;
+		for (int child = getFirstChild(node); child >= 0; child = nextSiblings[child])
+			count++;
+		return count;
+	}
+
+	public Node toNode(int node) {
+		Node result = createNode(node);
+		if (kinds[node] != NodeKind.ELSE.ordinal())
+			result.setSpan(paddings[node], lengths[node]);
+		return result;
+	}
+	
+	private Node createNode(int node) {
+		int child = getFirstChild(node);
+		switch (getKind(node)) {
+		case WHILE:
+			return new WhileNode(toExpression(child), toNode(nextSiblings[child]));
+		case IF: {
+			ExpressionNode condition = toExpression(child);
+			child = nextSiblings[child];
+			Node content = toNode(child);
+			List<ElseIfNode> elseIfNodes = new ArrayList<>();
+			Optional<Node> elseNode = Optional.empty();
+			for (child = nextSiblings[child]; child >= 0; child = nextSiblings[child]) {
+				if (kinds[child] == NodeKind.ELSE.ordinal())
+					elseNode = Optional.of(toNode(firstChildren[child]));
+				else
+					elseIfNodes.add((ElseIfNode) toNode(child));
+			}
+			return new IfNode(condition, content, elseIfNodes, elseNode);
+		}
+		case ELSE_IF:
+			return new ElseIfNode(toExpression(child), toNode(nextSiblings[child]));
+		case ELSE:
+			return toNode(child);
+		case BLOCK: {
+			List<Node> content = new ArrayList<>();
+			for (; child >= 0; child = nextSiblings[child])
+				content.add(toNode(child));
+			return new BlockNode(content);
+		}
+		case ASSIGNMENT:
+			return new AssignmentNode(getToken(node), toExpression(child));
+		case ERROR:
+			return new ErrorNode(getDiagnostic(node));
+		default:
+			return toExpression(node);
+		}
+	}
+
+	public ExpressionNode toExpression(int node) {
+		int child = getFirstChild(node);
+		switch (getKind(node)) {
+		case BINARY:
+			return new BinaryExpressionNode(getToken(node), toExpression(child), toExpression(nextSiblings[child]));
+		case PREFIX:
+			return new PrefixExpressionNode(getToken(node), toExpression(child));
+		case LITERAL:
+			return new LiteralExpressionNode(getToken(node));
+		case CALL:
+			return new FunctionCallExpressionNode(getToken(node));
+		default:
+			throw new IllegalStateException("Node " + node + " is not an expression: " + getKind(node));
+		}
+	}
+
+	private int checkNode(int node) {
+		if (node < 0 || node >= size)
+			throw new IndexOutOfBoundsException("Node " + node + " out of bounds for size " + size);
+		return node;
+	}
+
+}
@@ -0,0 +1,158 @@
+
+
+import java.util.List;
+
+public class FlatParser {
+
+	private TokenBuffer tokens;
+	private FlatAst ast;
+	private Parser parser;
+	private int start;
+
+	public FlatParser(TokenBuffer tokens) {
+		this(tokens, new FlatAst(tokens, Math.max(16, tokens.size())));
+	}
+
+	public FlatParser(TokenBuffer tokens, FlatAst ast) {
+		if (ast.getTokens() != tokens)
+			throw new IllegalStateException("Arena belongs to a different token buffer");
+		this.tokens = tokens;
+		this.ast = ast;
+		this.parser = new Parser(tokens.cursor(), new Builder(tokens, ast));
+	}
+
+	public FlatAst getAst() {
+		return ast;
+	}
+
+	public int getPosition() {
+		return start + parser.mark();
+	}
+
+	public void reset(int position) {
+		parser.reset(tokens.cursor(position, tokens.size()));
+		this.start = position;
+	}
+
+	public boolean isRecovering() {
+		return parser.isRecovering();
+	}
+
+	public void setRecovering(boolean recovering) {
+		parser.setRecovering(recovering);
+	}
+
+	public List<Diagnostic> getDiagnostics() {
+		return parser.getDiagnostics();
+	}
+
+	public int parseProgram() {
+		return parser.program();
+	}
+
+	public int parseWhileStatement() {
+		return parser.whileStatement();
+	}
+
+	public int parseIfStatement() {
+		return parser.ifStatement();
+	}
+
+	public int parseAssignmentStatement() {
+		return parser.assignmentStatement();
+	}
+
+	public int parseExpression() {
+		return parser.expression();
+	}
+
+	private static final class Builder implements NodeSink {
+
+		private TokenBuffer tokens;
+		private FlatAst ast;
+
+		Builder(TokenBuffer tokens, FlatAst ast) {
+			this.tokens = tokens;
+			this.ast = ast;
+		}
+
+		private int index(Token token) {
+			return token == null ? -1 : tokens.indexOf(token.getOffset());
+		}
+
+		@Override
+		public int whileStatement(Token keyword, int condition, int content) {
+			ast.link(condition, content);
+			return ast.add(NodeKind.WHILE, index(keyword), condition);
+		}
+
+		@Override
+		public int ifStatement(Token keyword, int condition, int content, int[] elseIfs, int from, int to, int elseBranch) {
+			ast.link(condition, content);
+			int last = content;
+			for (int i = from; i < to; i++) {
+				ast.link(last, elseIfs[i]);
+				last = elseIfs[i];
+			}
+			if (elseBranch >= 0)
+				ast.link(last, elseBranch);
+			return ast.add(NodeKind.IF, index(keyword), condition);
+		}
+
+		@Override
+		public int elseIf(Token keyword, int condition, int content) {
+			ast.link(condition, content);
+			return ast.add(NodeKind.ELSE_IF, index(keyword), condition);
+		}
+
+		@Override
+		public int elseBranch(Token keyword, int content) {
+			return ast.add(NodeKind.ELSE, index(keyword), content);
+		}
+
+		@Override
+		public int block(Token brace, int[] statements, int from, int to) {
+			for (int i = from + 1; i < to; i++)
+				ast.link(statements[i - 1], statements[i]);
+			return ast.add(NodeKind.BLOCK, index(brace), from < to ? statements[from] : -1);
+		}
+
+		@Override
+		public int assignment(Token id, int expression) {
+			return ast.add(NodeKind.ASSIGNMENT, index(id), expression);
+		}
+
+		@Override
+		public int binary(Token op, int left, int right) {
+			ast.link(left, right);
+			return ast.add(NodeKind.BINARY, index(op), left);
+		}
+
+		@Override
+		public int prefix(Token op, int arg) {
+			return ast.add(NodeKind.PREFIX, index(op), arg);
+		}
+
+		@Override
+		public int literal(Token token) {
+			return ast.add(NodeKind.LITERAL, index(token), -1);
+		}
+
+		@Override
+		public int call(Token id) {
+			return ast.add(NodeKind.CALL, index(id), -1);
+		}
+
+		@Override
+		public int error(Diagnostic diagnostic) {
+			return ast.addError(tokens.indexOf(diagnostic.getOffset()), diagnostic);
+		}
+
+		@Override
+		public void setSpan(int node, int padding, int length) {
+			ast.setSpan(node, padding, length);
+		}
+
+	}
+
+}
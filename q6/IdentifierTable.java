@@ -0,0 +1,110 @@
+
+
+import java.util.Arrays;
+
+public class IdentifierTable {
+
+	private static final int RETAINED_SLOTS = 1 << 12;
+
+	private int[] slots;
+	private int[] hashes;
+	private String[] names;
+	private int size;
+	
+	public IdentifierTable() {
+		this.slots = new int[64];
+		this.hashes = new int[32];
+		this.names = new String[32];
+	}
+	
+	public void clear() {
+		if (slots.length > RETAINED_SLOTS) {
+			slots = new int[64];
+			hashes = new int[32];
+			names = new String[32];
+		} else {
+			Arrays.fill(slots, 0);
+			Arrays.fill(names, 0, size, null);
+		}
+		size = 0;
+	}
+	
+	public int intern(CharSequence input, int start, int end) {
+		int h = hash(input, start, end);
+		int slot = slotOf(h, input, start, end);
+		int id = slots[slot] - 1;
+		if (id >= 0)
+			return id;
+		id = size++;
+		if (id == names.length) {
+			hashes = Arrays.copyOf(hashes, id * 2);
+			names = Arrays.copyOf(names, id * 2);
+		}
+		hashes[id] = h;
+		names[id] = input.subSequence(start, end).toString();
+		slots[slot] = id + 1;
+		if (size * 2 > slots.length)
+			rehash();
+		return id;
+	}
+	
+	public int find(CharSequence input, int start, int end) {
+		return slots[slotOf(hash(input, start, end), input, start, end)] - 1;
+	}
+	
+	public String get(int id) {
+		if (id < 0 || id >= size)
+			throw new IndexOutOfBoundsException("Identifier id " + id + " out of bounds for size " + size);
+		return names[id];
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	private static int hash(CharSequence input, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++)
+			h = 31 * h + input.charAt(i);
+		return h;
+	}
+	
+	private int slotOf(int h, CharSequence input, int start, int end) {
+		int mask = slots.length - 1;
+		int slot = mix(h) & mask;
+		int id;
+		while ((id = slots[slot] - 1) >= 0) {
+			if (hashes[id] == h && matches(names[id], input, start, end))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	private static int mix(int h) {
+		return h ^ (h >>> 16);
+	}
+	
+	private static boolean matches(String name, CharSequence input, int start, int end) {
+		if (name.length() != end - start)
+			return false;
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) != input.charAt(start + i))
+				return false;
+		}
+		return true;
+	}
+	
+	private void rehash() {
+		int[] table = new int[slots.length * 2];
+		int mask = table.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = mix(hashes[id]) & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = id + 1;
+		}
+		slots = table;
+	}
+	
+}
@@ -0,0 +1,164 @@
+
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class IncrementalParser {
+
+	private TokenBuffer tokens;
+	private Parser parser;
+	private BlockNode program;
+
+	public IncrementalParser(Path file, CharSequence input) {
+		this.tokens = TokenBuffer.lexGenerated(file, input);
+		this.parser = new Parser(tokens);
+		parse();
+	}
+
+	public CharSequence getInput() {
+		return tokens.getText().getInput();
+	}
+
+	public BlockNode getProgram() {
+		return program;
+	}
+
+	public BlockNode edit(int offset, int removedLength, CharSequence inserted) {
+		int end = offset + removedLength;
+		int delta = inserted.length() - removedLength;
+		tokens.edit(offset, removedLength, inserted);
+		if (program == null || reparse(program, 0, offset, end, delta) == null)
+			parse();
+		return program;
+	}
+
+	private void parse() {
+		program = null;
+		parser.reset(tokens);
+		program = parser.parseProgram();
+	}
+
+	private Node reparse(Node node, int start, int offset, int end, int delta) {
+		List<Node> children = children(node);
+		int cursor = start;
+		for (int i = 0; i < children.size(); i++) {
+			Node child = children.get(i);
+			int childStart = cursor + child.getPadding();
+			int childEnd = childStart + child.getLength();
+			if (childStart >= end)
+				break;
+			if (childStart < offset && end < childEnd) {
+				Node replaced = reparse(child, childStart, offset, end, delta);
+				if (replaced == null)
+					break;
+				SourceText text = tokens.getText();
+				for (int j = i + 1; j < children.size(); j++)
+					shift(children.get(j), text, delta);
+				if (node instanceof IfNode)
+					shiftConditions((IfNode) node, i, text, delta);
+				return replace(node, i, replaced, delta);
+			}
+			cursor = childEnd;
+		}
+		if (node == program)
+			return null;
+		return parseRange(start, start + node.getLength() + delta, node.getPadding());
+	}
+
+	private Node parseRange(int start, int end, int padding) {
+		int from = tokens.indexOf(start);
+		int to = tokens.firstStartingAtOrAfter(end);
+		if (from < 0 || (to < tokens.size() && tokens.getType(to) == TokenType.KW_ELSE))
+			return null;
+		parser.reset(tokens.cursor(from, to));
+		try {
+			Node node = parser.parseContent(start - padding);
+			return parser.peek(0) == null ? node : null;
+		} catch (IllegalStateException e) {
+			return null;
+		}
+	}
+
+	private static List<Node> children(Node node) {
+		if (node instanceof BlockNode)
+			return ((BlockNode) node).getContent();
+		List<Node> children = new ArrayList<>();
+		if (node instanceof WhileNode) {
+			children.add(((WhileNode) node).getContent());
+		} else if (node instanceof IfNode) {
+			IfNode ifNode = (IfNode) node;
+			children.add(ifNode.getContent());
+			for (ElseIfNode elseIfNode : ifNode.getElseIfNodes())
+				children.add(elseIfNode.getContent());
+			ifNode.getElseNode().ifPresent(children::add);
+		}
+		return children;
+	}
+
+	private static Node replace(Node node, int index, Node child, int delta) {
+		Node copy;
+		if (node instanceof BlockNode) {
+			((BlockNode) node).getContent().set(index, child);
+			copy = node;
+		} else if (node instanceof WhileNode) {
+			copy = new WhileNode(((WhileNode) node).getCondition(), child);
+		} else {
+			IfNode ifNode = (IfNode) node;
+			Node content = ifNode.getContent();
+			List<ElseIfNode> elseIfNodes = ifNode.getElseIfNodes();
+			Optional<Node> elseNode = ifNode.getElseNode();
+			if (index == 0) {
+				content = child;
+			} else if (index <= elseIfNodes.size()) {
+				elseIfNodes = new ArrayList<>(elseIfNodes);
+				elseIfNodes.set(index - 1, new ElseIfNode(elseIfNodes.get(index - 1).getCondition(), child));
+			} else {
+				elseNode = Optional.of(child);
+			}
+			copy = new IfNode(ifNode.getCondition(), content, elseIfNodes, elseNode);
+		}
+		copy.setSpan(node.getPadding(), node.getLength() + delta);
+		return copy;
+	}
+
+	private static void shiftConditions(IfNode node, int index, SourceText text, int delta) {
+		List<ElseIfNode> elseIfNodes = node.getElseIfNodes();
+		for (int i = index; i < elseIfNodes.size(); i++)
+			shift(elseIfNodes.get(i).getCondition(), text, delta);
+	}
+
+	private static void shift(Node node, SourceText text, int delta) {
+		if (node instanceof AssignmentNode) {
+			AssignmentNode assignment = (AssignmentNode) node;
+			assignment.getId().shift(text, delta);
+			shift(assignment.getExpression(), text, delta);
+		} else if (node instanceof WhileNode) {
+			shift(((WhileNode) node).getCondition(), text, delta);
+		} else if (node instanceof IfNode) {
+			shift(((IfNode) node).getCondition(), text, delta);
+			shiftConditions((IfNode) node, 0, text, delta);
+		}
+		for (Node child : children(node))
+			shift(child, text, delta);
+	}
+
+	private static void shift(ExpressionNode node, SourceText text, int delta) {
+		if (node instanceof BinaryExpressionNode) {
+			BinaryExpressionNode binary = (BinaryExpressionNode) node;
+			shift(binary.getArg0(), text, delta);
+			binary.getOp().shift(text, delta);
+			shift(binary.getArg1(), text, delta);
+		} else if (node instanceof PrefixExpressionNode) {
+			PrefixExpressionNode prefix = (PrefixExpressionNode) node;
+			prefix.getOp().shift(text, delta);
+			shift(prefix.getArg(), text, delta);
+		} else if (node instanceof FunctionCallExpressionNode) {
+			((FunctionCallExpressionNode) node).getId().shift(text, delta);
+		} else {
+			((LiteralExpressionNode) node).getContent().shift(text, delta);
+		}
+	}
+
+}
@@ -0,0 +1,8 @@
+
+
+public enum LexError {
+
+	INVALID_INPUT, INVALID_IDENTIFIER, INVALID_KEYWORD, INVALID_TYPE, INVALID_SYMBOL, INVALID_NUMBER, INVALID_ESCAPE,
+	INVALID_CHARACTER_LITERAL, UNTERMINATED_STRING;
+
+}
@@ -1,46 +1,226 @@
 
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Lexer {
+public class Lexer implements TokenSource {
 
+	private static final RunScanner RUNS = loadRunScanner();
+	private static final OperatorTrie SYMBOLS = new OperatorTrie();
+	
+	static {
+		SYMBOLS.add("(", TokenType.SM_LPAREN);
+		SYMBOLS.add(")", TokenType.SM_RPAREN);
+		SYMBOLS.add("[", TokenType.SM_LBRACKET);
+		SYMBOLS.add("]", TokenType.SM_RBRACKET);
+		SYMBOLS.add("{", TokenType.SM_LBRACE);
+		SYMBOLS.add("}", TokenType.SM_RBRACE);
+		SYMBOLS.add("+", TokenType.SM_PLUS);
+		SYMBOLS.add("-", TokenType.SM_MINUS);
+		SYMBOLS.add("*", TokenType.SM_ASTERISK);
+		SYMBOLS.add("/", TokenType.SM_SLASH);
+		SYMBOLS.add("%", TokenType.SM_PERCENT);
+		SYMBOLS.add("&&", TokenType.SM_LOGICAL_AND);
+		SYMBOLS.add("||", TokenType.SM_LOGICAL_OR);
+		SYMBOLS.add("!", TokenType.SM_LOGICAL_NOT);
+		SYMBOLS.add("=", TokenType.SM_ASSIGN);
+		SYMBOLS.add(";", TokenType.SM_SEMICOLON);
+	}
+	
+	private static final PerfectHash KEYWORDS = new PerfectHash(
+			new String[] { "while", "if", "else" },
+			new TokenType[] { TokenType.KW_WHILE, TokenType.KW_IF, TokenType.KW_ELSE });
+	private static final PerfectHash TYPES = new PerfectHash(
+			new String[] { "String", "Integer", "Character", "Float", "Void" },
+			new TokenType[] { TokenType.TYPE_STRING, TokenType.TYPE_INTEGER, TokenType.TYPE_CHARACTER, TokenType.TYPE_FLOAT, TokenType.TYPE_VOID });
+
+	private SourceText text;
 	private CharSequence input;
+	private StreamText stream;
+	private char[] chars;
+	private int charCount;
+	private IdentifierTable identifiers = new IdentifierTable();
+	private NumberDecoder numbers = new NumberDecoder();
 	private int current;
-	private int line;
-	private int col;
-	private Path file;
+	private int start;
+	private boolean tableDriven;
+	private boolean decodeStrings;
+	private boolean diagnosticMode;
+	private List<Diagnostic> diagnostics = new ArrayList<>();
+	private LexError error;
+	private String errorMessage;
 	
 	public Lexer(Path file, CharSequence input) {
-		this.file = file;
-		this.input = input;
-		this.line = 1;
-		this.col = 1;
+		this(file, input, false);
+	}
+	
+	public Lexer(Path file, CharSequence input, boolean tableDriven) {
+		this.tableDriven = tableDriven;
+		reset(file, input);
+	}
+	
+	public Lexer(Path file, Reader reader, boolean tableDriven) {
+		this(file, new StreamText(reader, 8192), tableDriven);
+	}
+	
+	private Lexer(Path file, StreamText stream, boolean tableDriven) {
+		this(file, (CharSequence) stream, tableDriven);
+		this.stream = stream;
+	}
+	
+	private Lexer(Lexer parent, int offset) {
+		this.text = parent.text;
+		this.input = parent.input;
+		this.chars = parent.chars;
+		this.charCount = parent.charCount;
+		this.tableDriven = parent.tableDriven;
+		this.decodeStrings = parent.decodeStrings;
+		this.diagnosticMode = parent.diagnosticMode;
+		this.current = offset;
+	}
+	
+	static RunScanner runScanner() {
+		return RUNS;
+	}
+	
+	private static RunScanner loadRunScanner() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+			return null;
+		try {
+			return (RunScanner) Class.forName("VectorRunScanner").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+	
+	public static Lexer stream(Path file, ReadableByteChannel channel, boolean tableDriven) {
+		return new Lexer(file, Channels.newReader(channel, StandardCharsets.UTF_8), tableDriven);
+	}
+	
+	public static Lexer map(Path file, boolean tableDriven) throws IOException {
+		return new Lexer(file, MappedText.map(file), tableDriven);
 	}
 	
 	public Path getFile() {
-		return file;
+		return text.getFile();
+	}
+	
+	public SourceText getText() {
+		return text;
+	}
+	
+	public IdentifierTable getIdentifiers() {
+		return identifiers;
+	}
+	
+	public boolean isTableDriven() {
+		return tableDriven;
 	}
 	
+	public boolean isDecodingStrings() {
+		return decodeStrings;
+	}
+	
+	public void setDecodeStrings(boolean decodeStrings) {
+		this.decodeStrings = decodeStrings;
+	}
+	
+	public boolean isDiagnosticMode() {
+		return diagnosticMode;
+	}
+	
+	public void setDiagnosticMode(boolean diagnosticMode) {
+		this.diagnosticMode = diagnosticMode;
+	}
+	
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+	
+	public boolean isStreaming() {
+		return stream != null;
+	}
+	
+	public void reset(CharSequence input) {
+		reset(getFile(), input);
+	}
+	
+	public void reset(Path file, CharSequence input) {
+		this.text = new SourceText(file, input);
+		this.input = input;
+		this.stream = null;
+		if (RUNS != null && input instanceof String) {
+			String string = (String) input;
+			if (chars == null || chars.length < string.length())
+				chars = new char[Math.max(string.length(), 64)];
+			string.getChars(0, string.length(), chars, 0);
+			charCount = string.length();
+		} else {
+			chars = null;
+		}
+		current = 0;
+		start = 0;
+		error = null;
+		diagnostics.clear();
+		identifiers.clear();
+	}
+	
+	void seek(int offset) {
+		if (stream != null)
+			throw new IllegalStateException("Cannot seek a streaming lexer");
+		current = offset;
+	}
+	
+	Lexer fork(int offset) {
+		if (stream != null)
+			throw new IllegalStateException("Cannot fork a streaming lexer");
+		return new Lexer(this, offset);
+	}
+	
+	@Override
 	public boolean hasNext() {
-		return current < input.length();
+		skipWhitespace();
+		return hasChar();
 	}
 	
-	private char get() {
-		return hasNext() ? input.charAt(current) : (char) -1;
+	public Stream<Token> tokens() {
+		return StreamSupport.stream(spliterator(), false);
 	}
 	
-	private void advance() {
-		current++;
-		col++;
+	public Spliterator<Token> spliterator() {
+		return new TokenSpliterator(this, Integer.MAX_VALUE);
+	}
+	
+	int getPosition() {
+		return current;
 	}
 	
-	private void retract() {
-		current--;
-		col--;
+	private boolean hasChar() {
+		return current < input.length() || (stream != null && stream.fill(current));
 	}
 	
-	private SourceMeta genMeta() {
-		return new SourceMeta(file, line, col);
+	private void skipWhitespace() {
+		if (chars != null)
+			current = RUNS.skipWhitespace(chars, current, charCount);
+		while (hasChar() && isWhitespace(get()))
+			advance();
+	}
+	
+	private char get() {
+		return hasChar() ? input.charAt(current) : (char) -1;
+	}
+	
+	private void advance() {
+		current++;
 	}
 	
 	private boolean isWhitespace(char c) {
@@ -88,69 +268,83 @@ public class Lexer {
 		return c == 'f' || c == 'F' || c == 'l' || c == 'L';
 	}
 	
-	private TokenType getSymbolType(String str) {
-		switch (str) {
-		case "(":
-			return TokenType.SM_LPAREN;
-		case ")":
-			return TokenType.SM_RPAREN;
-		case "[":
-			return TokenType.SM_LBRACKET;
-		case "]":
-			return TokenType.SM_RBRACKET;
-		case "{":
-			return TokenType.SM_LBRACE;
-		case "}":
-			return TokenType.SM_RBRACE;
-		case "+":
-			return TokenType.SM_PLUS;
-		case "-":
-			return TokenType.SM_MINUS;
-		case "*":
-			return TokenType.SM_ASTERISK;
-		case "/":
-			return TokenType.SM_SLASH;
-		case "%":
-			return TokenType.SM_PERCENT;
-		case "&&":
-			return TokenType.SM_LOGICAL_AND;
-		case "||":
-			return TokenType.SM_LOGICAL_OR;
-		case "!":
-			return TokenType.SM_LOGICAL_NOT;
-		case "=":
-			return TokenType.SM_ASSIGN;
-		case ";":
-			return TokenType.SM_SEMICOLON;
-		default:
+	@Override
+	public Token nextToken() {
+		TokenType type = scanToken();
+		if (type == null)
 			return null;
+		int length = current - start;
+		String name = Token.isIdentifier(type) ? identifiers.get(identifiers.intern(input, start, current)) : null;
+		if (decodeStrings && (type == TokenType.STRING_LITERAL || type == TokenType.CHARACTER_LITERAL)) {
+			String value = StringToken.decode(input, start + 1, current - 1);
+			return stream != null ? new StringToken(type, Token.data(type, input, start, length), start, length, stream.getMeta(getFile(), start), value) : new StringToken(type, text, start, length, value);
 		}
+		if (type == TokenType.ERROR)
+			return stream != null ? new ErrorToken(Token.data(type, input, start, length), start, length, stream.getMeta(getFile(), start), error) : new ErrorToken(text, start, length, error);
+		if (Token.isNumber(type))
+			return stream != null ? new NumberToken(type, input, start, length, stream.getMeta(getFile(), start), numbers.getBits(), numbers.getBigValue(), numbers.getSuffix()) : new NumberToken(type, text, start, length, numbers.getBits(), numbers.getBigValue(), numbers.getSuffix());
+		if (stream != null)
+			return new Token(type, name != null ? name : Token.data(type, input, start, length), start, length, stream.getMeta(getFile(), start));
+		return new Token(type, text, start, length, name);
 	}
+
 	
-	private TokenType getType(String str) {
-		switch (str) {
-		case "String":
-			return TokenType.TYPE_STRING;
-		case "Integer":
-			return TokenType.TYPE_INTEGER;
-		case "Character":
-			return TokenType.TYPE_CHARACTER;
-		case "Float":
-			return TokenType.TYPE_FLOAT;
-		case "Void":
-			return TokenType.TYPE_VOID;
-		default:
-			throw new IllegalStateException("Invalid type " + str);
+	TokenType scanToken() {
+		if (stream != null)
+			stream.release(current);
+		error = null;
+		TokenType type;
+		if (tableDriven) {
+			type = recoverIfFailed(tableScan());
+		} else {
+			skipWhitespace();
+			if (!hasChar())
+				return null;
+			
+			start = current;
+			type = recoverIfFailed(scan());
 		}
+		if (type != null && Token.isNumber(type))
+			numbers.decode(type, input, start, current);
+		return type;
 	}
 	
-	public Token nextToken() {
-		while (hasNext() && isWhitespace(get()))
+	NumberDecoder getNumber() {
+		return numbers;
+	}
+	
+	private TokenType fail(LexError code, String message) {
+		if (!diagnosticMode)
+			throw new IllegalStateException(message);
+		if (error == null) {
+			error = code;
+			errorMessage = message;
+		}
+		return TokenType.ERROR;
+	}
+	
+	private TokenType recoverIfFailed(TokenType type) {
+		if (error == null)
+			return type;
+		if (current <= start)
+			current = start + 1;
+		char c;
+		while (hasChar() && !isWhitespace(c = get()) && SYMBOLS.step(0, c) == 0)
 			advance();
-		
-		if (!hasNext())
-			return null;
-		
+		SourceMeta meta = stream != null ? stream.getMeta(getFile(), start) : text.getMeta(start);
+		diagnostics.add(new Diagnostic(error, errorMessage, start, current - start, meta));
+		return TokenType.ERROR;
+	}
+	
+	int getTokenStart() {
+		return start;
+	}
+	
+	int getTokenEnd() {
+		return current;
+	}
+	
+	private TokenType scan() {
 		char c = get();
 		
 		if (c == '$')
@@ -172,589 +366,488 @@ public class Lexer {
 		else if (isLowercaseLetter(c))
 			return keyword();
 		else
-			throw new IllegalStateException("Invalid input " + c);
+			return fail(LexError.INVALID_INPUT, "Invalid input " + c);
 	}
 	
-	private Token keyword() {
-		SourceMeta m = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
-		advance();
-		char c;
-		while (isLowercaseLetter(c = get())) {
-			sb.append(c);
-			advance();
+	private String lexeme() {
+		return input.subSequence(start, current).toString();
+	}
+	
+	private TokenType tableScan() {
+		CharSequence in = input;
+		int n = in.length();
+		byte[] classes = DfaTables.CLASSES;
+		byte[] transitions = DfaTables.TRANSITIONS;
+		
+		int pos = current;
+		if (chars != null)
+			pos = RUNS.skipWhitespace(chars, pos, n);
+		while ((pos < n || (n = more(pos)) > pos) && classes[in.charAt(pos)] == DfaTables.C_WS)
+			pos++;
+		current = pos;
+		if (pos >= n)
+			return null;
+		
+		int state = DfaTables.START;
+		int next;
+		while ((pos < n || (n = more(pos)) > pos) && (next = transitions[state * DfaTables.CLASS_COUNT + classes[in.charAt(pos)]]) != DfaTables.REJECT) {
+			state = next;
+			pos++;
 		}
-		TokenType type = getKeywordType(sb.toString());
-		return new Token(type, sb.toString(), m);
-	}
-	
-	private TokenType getKeywordType(String str) {
-		switch (str) {
-		case "while":
-			return TokenType.KW_WHILE;
-		case "if":
-			return TokenType.KW_IF;
-		case "else":
-			return TokenType.KW_ELSE;
+		
+		start = current;
+		current = pos;
+		
+		switch (DfaTables.ACTIONS[state]) {
+		case DfaTables.A_ID:
+			return getIdentifierType(in.charAt(start), in.charAt(start + 1));
+		case DfaTables.A_KEYWORD:
+			return lookupKeyword();
+		case DfaTables.A_TYPE:
+			return lookupType();
+		case DfaTables.A_SYMBOL:
+			TokenType type = DfaTables.TYPES[state];
+			return type != null ? type : DfaTables.SYMBOL_TYPES[in.charAt(start)];
+		case DfaTables.A_QUOTED:
+			return checkEscapes(DfaTables.TYPES[state]);
+		case DfaTables.A_NUMBER:
+			return DfaTables.TYPES[state];
 		default:
-			throw new IllegalStateException("Invalid keyword " + str);
+			current = start;
+			return scan();
 		}
 	}
 	
-	private String hexExponent() {
-		StringBuilder sb = new StringBuilder();
+	private int more(int pos) {
+		if (stream != null)
+			stream.fill(pos);
+		return input.length();
+	}
+	
+	private TokenType getIdentifierType(char sigil, char first) {
+		boolean isPrivate = first == '_';
+		if (sigil == '$')
+			return isPrivate ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
+		else if (sigil == '@')
+			return isPrivate ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
+		else
+			return isPrivate ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
+	}
+	
+	private TokenType keyword() {
+		advance();
+		while (isLowercaseLetter(get()))
+			advance();
+		return lookupKeyword();
+	}
+	
+	private TokenType lookupKeyword() {
+		TokenType type = KEYWORDS.get(input, start, current);
+		if (type == null)
+			return fail(LexError.INVALID_KEYWORD, "Invalid keyword " + lexeme());
+		return type;
+	}
+	
+	private TokenType lookupType() {
+		TokenType type = TYPES.get(input, start, current);
+		if (type == null)
+			return fail(LexError.INVALID_TYPE, "Invalid type " + lexeme());
+		return type;
+	}
+	
+	private void hexExponent() {
 		char c = get();
-		if (c != 'p' && c != 'P')
-			throw new IllegalStateException("Invalid hexadecimal floating-point literal exponent");
-		sb.append(c);
+		if (c != 'p' && c != 'P') {
+			fail(LexError.INVALID_NUMBER, "Invalid hexadecimal floating-point literal exponent");
+			return;
+		}
 		advance();
 		c = get();
-		if (c == '+' || c == '-') {
-			sb.append(c);
+		if (c == '+' || c == '-')
 			advance();
-		}
-		sb.append(digits());
-		return sb.toString();
+		digits();
 	}
 	
-	private String exponent() {
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private void exponent() {
 		advance();
 		char c = get();
-		if (c == '+' || c == '-') {
-			sb.append(c);
+		if (c == '+' || c == '-')
 			advance();
-		}
-		sb.append(digits());
-		return sb.toString();
+		digits();
 	}
 	
-	private String digits() {
-		StringBuilder sb = new StringBuilder();
-		char c = get();
-		if (!isDigit(c))
-			throw new IllegalStateException("Invalid integer literal");
-		sb.append(c);
+	private void digits() {
+		if (!isDigit(get())) {
+			fail(LexError.INVALID_NUMBER, "Invalid integer literal");
+			return;
+		}
 		advance();
-		while (isDigit(c = get())) {
-			sb.append(c);
+		while (isDigit(get()))
 			advance();
-		}
-		return sb.toString();
 	}
 	
-	private String intSuffix() {
-		StringBuilder sb = new StringBuilder();
+	private void intSuffix() {
 		char c = get();
 		if (c == 'u' || c == 'U') {
-			sb.append(c);
 			advance();
-			if (c == 'l') {
-				sb.append(c);
-				advance();
-				c = get();
-				if (c == 'l') {
-					sb.append(c);
-					advance();
-				}
-			} else if (c == 'L') {
-				sb.append(c);
-				advance();
-				c = get();
-				if (c == 'L') {
-					sb.append(c);
-					advance();
-				}
-			}
 		} else if (c == 'l') {
-			sb.append(c);
 			advance();
 			c = get();
 			if (c == 'l') {
-				sb.append(c);
 				advance();
 				c = get();
-				if (c == 'u' || c == 'U') {
-					sb.append(c);
+				if (c == 'u' || c == 'U')
 					advance();
-				}
 			} else if (c == 'u' || c == 'U') {
-				sb.append(c);
 				advance();
 			}
 		} else {
-			sb.append(c);
 			advance();
 			c = get();
 			if (c == 'L') {
-				sb.append(c);
 				advance();
 				c = get();
-				if (c == 'u' || c == 'U') {
-					sb.append(c);
+				if (c == 'u' || c == 'U')
 					advance();
-				}
 			} else if (c == 'u' || c == 'U') {
-				sb.append(c);
 				advance();
 			}
 		}
-		
-		return sb.toString();
+	}
+	
+	private void floatSuffix() {
+		if (isFloatSuffix(get()))
+			advance();
 	}
 
-	private Token number() {
-		SourceMeta m = genMeta();
+	private TokenType number() {
 		char first = get();
 		if (first == '.') {
 			advance();
-			return decimalFloatWithInitialDot(m);
+			return decimalFloatWithInitialDot();
 		} else if (first == '0') {
 			advance();
 			char c = get();
 			if (c == 'x' || c == 'X') {
 				advance();
-				return hexOrHexFloat("0" + c, m);
+				return hexOrHexFloat();
 			} else if (c == 'b' || c == 'B') {
 				advance();
-				return binaryLiteral("0" + c, m);
+				return binaryLiteral();
 			} else {
-				return octalOrDecimalFloat("0", m);
+				return octalOrDecimalFloat();
 			}
 		} else {
-			return decimalOrDecimalFloat(m);
+			return decimalOrDecimalFloat();
 		}
 	}
 
-	private Token decimalOrDecimalFloat(SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private TokenType decimalOrDecimalFloat() {
 		advance();
 
 		char c;
-		while (isDigit(c = get())) {
-			sb.append(c);
+		while (isDigit(c = get()))
 			advance();
-		}
 
 		if (c == 'e' || c == 'E') {
-			sb.append(exponent());
-			c = get();
-			if (isFloatSuffix(c)) {
-				sb.append(c);
-				advance();
-			}
-
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+			exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else if (c == '.') {
-			sb.append(c);
 			advance();
-			while (isDigit(c = get())) {
-				sb.append(c);
+			while (isDigit(get()))
 				advance();
-			}
 
 			c = get();
 			if (c == 'e' || c == 'E')
-				sb.append(exponent());
-			
-			c = get();
-			if (isFloatSuffix(c)) {
-				sb.append(c);
-				advance();
-			}
-
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+				exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else if (isIntSuffix(c)) {
-			sb.append(intSuffix());
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
 		} else
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			return TokenType.INTEGER_LITERAL;
 	}
 
-	private Token binaryLiteral(String initial, SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(initial);
+	private TokenType binaryLiteral() {
 		char c = get();
 		if (!isBinaryDigit(c))
-			throw new IllegalStateException("Invalid binary integer literal");
-		sb.append(c);
+			return fail(LexError.INVALID_NUMBER, "Invalid binary integer literal");
 		advance();
-		while (isBinaryDigit(c = get())) {
-			sb.append(c);
+		while (isBinaryDigit(c = get()))
 			advance();
-		}
 		if (isIntSuffix(c))
-			sb.append(intSuffix());
-		return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			intSuffix();
+		return TokenType.INTEGER_LITERAL;
 	}
 
-	private Token octalOrDecimalFloat(String initial, SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(initial);
+	private TokenType octalOrDecimalFloat() {
 		char c;
-		while (isOctalDigit(c = get())) {
-			sb.append(c);
+		while (isOctalDigit(c = get()))
 			advance();
-		}
 
-		if (isDigit(c)) {
-			while (isDigit(c = get())) {
-				sb.append(c);
+		if (isDigit(c) || c == '.') {
+			while (isDigit(c = get()))
 				advance();
-			}
 
 			if (c == '.') {
-				sb.append(c);
 				advance();
-				while (isDigit(c = get())) {
-					sb.append(c);
+				while (isDigit(get()))
 					advance();
-				}
-			}
-
-			c = get();
-			if (c == 'e' || c == 'E')
-				sb.append(exponent());
-			
-			c = get();
-			if (isFloatSuffix(c)) {
-				sb.append(c);
-				advance();
-			}
-
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
-		} else if (c == '.') {
-			sb.append(c);
-			advance();
-			while (isDigit(c = get())) {
-				sb.append(c);
-				advance();
 			}
 
 			c = get();
 			if (c == 'e' || c == 'E')
-				sb.append(exponent());
-			
-			c = get();
-			if (isFloatSuffix(c)) {
-				sb.append(c);
-				advance();
-			}
-
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+				exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else if (c == 'e' || c == 'E') {
-			sb.append(exponent());
-
-			c = get();
-			if (isFloatSuffix(c)) {
-				sb.append(c);
-				advance();
-			}
-
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+			exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else if (isIntSuffix(c)) {
-			sb.append(intSuffix());
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
 		} else {
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			return TokenType.INTEGER_LITERAL;
 		}
 	}
 
-	private Token decimalFloatWithInitialDot(SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append("." + digits());
+	private TokenType decimalFloatWithInitialDot() {
+		digits();
 		char c = get();
 		if (c == 'e' || c == 'E')
-			sb.append(exponent());
-		c = get();
-		if (isFloatSuffix(c)) {
-			sb.append(c);
-			advance();
-		}
-		return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+			exponent();
+		floatSuffix();
+		return TokenType.FLOATING_POINT_LITERAL;
 	}
 
-	private Token hexOrHexFloat(String initial, SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
+	private TokenType hexOrHexFloat() {
 		char c = get();
 		if (isHexDigit(c)) {
-			sb.append(c);
 			advance();
 		} else if (c == '.') {
 			advance();
-			return hexFloatWithInitialDot(initial, m);
+			return hexFloatWithInitialDot();
 		} else
-			throw new IllegalStateException("Invalid hexadecimal integer literal");
+			return fail(LexError.INVALID_NUMBER, "Invalid hexadecimal integer literal");
 
-		while (isHexDigit(c = get())) {
-			sb.append(c);
+		while (isHexDigit(c = get()))
 			advance();
-		}
 
 		if (isIntSuffix(c)) {
-			sb.append(intSuffix());
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
 		} else if (c == 'p' || c == 'P') {
-			sb.append(hexExponent());
-			if (isFloatSuffix(c = get())) {
-				sb.append(c);
-				advance();
-			}
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+			hexExponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else if (c == '.') {
-			sb.append(c);
 			advance();
-			while (isHexDigit(c = get())) {
-				sb.append(c);
-				advance();
-			}
-			sb.append(hexExponent());
-			if (isFloatSuffix(c = get())) {
-				sb.append(c);
+			while (isHexDigit(get()))
 				advance();
-			}
-			return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+			hexExponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
 		} else
-			return new Token(TokenType.INTEGER_LITERAL, sb.toString(), m);
+			return TokenType.INTEGER_LITERAL;
 	}
 
-	private Token hexFloatWithInitialDot(String initial, SourceMeta m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(initial + ".");
-		char c = get();
-		if (!isHexDigit(c))
-			throw new IllegalStateException("Invalid hexadecimal floating-point literal");
-		sb.append(c);
+	private TokenType hexFloatWithInitialDot() {
+		if (!isHexDigit(get()))
+			return fail(LexError.INVALID_NUMBER, "Invalid hexadecimal floating-point literal");
 		advance();
-		while (isHexDigit(c = get())) {
-			sb.append(c);
-			advance();
-		}
-		sb.append(hexExponent());
-		c = get();
-		if (isFloatSuffix(c)) {
-			sb.append(c);
+		while (isHexDigit(get()))
 			advance();
-		}
-		return new Token(TokenType.FLOATING_POINT_LITERAL, sb.toString(), m);
+		hexExponent();
+		floatSuffix();
+		return TokenType.FLOATING_POINT_LITERAL;
 	}
 
-	private Token scalarIdentifier() {
-		SourceMeta m = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private TokenType scalarIdentifier() {
 		advance();
 		if (!isIdentifierPart(get()))
-			throw new IllegalStateException("Invalid scalar identifier");
-		sb.append(get());
+			return fail(LexError.INVALID_IDENTIFIER, "Invalid scalar identifier");
 		advance();
-		char c;
-		while (isIdentifierPart(c = get())) {
-			sb.append(c);
+		if (chars != null)
+			current = RUNS.skipIdentifierPart(chars, current, charCount);
+		while (isIdentifierPart(get()))
 			advance();
-		}
-		String content = sb.toString();
-		TokenType type = content.charAt(1) == '_' ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
-		return new Token(type, content, m);
+		return input.charAt(start + 1) == '_' ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
 	}
 
-	private Token arrayIdentifier() {
-		SourceMeta m = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private TokenType arrayIdentifier() {
 		advance();
 		if (!isIdentifierPart(get()))
-			throw new IllegalStateException("Invalid array identifier");
-		sb.append(get());
+			return fail(LexError.INVALID_IDENTIFIER, "Invalid array identifier");
 		advance();
-		char c;
-		while (isIdentifierPart(c = get())) {
-			sb.append(c);
+		if (chars != null)
+			current = RUNS.skipIdentifierPart(chars, current, charCount);
+		while (isIdentifierPart(get()))
 			advance();
-		}
-		String content = sb.toString();
-		TokenType type = content.charAt(1) == '_' ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
-		return new Token(type, content, m);
+		return input.charAt(start + 1) == '_' ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
 	}
 
-	private Token hashIdentifier() {
-		SourceMeta m = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private TokenType hashIdentifier() {
 		advance();
 		if (!isIdentifierPart(get()))
-			throw new IllegalStateException("Invalid hash identifier");
-		sb.append(get());
+			return fail(LexError.INVALID_IDENTIFIER, "Invalid hash identifier");
 		advance();
-		char c;
-		while (isIdentifierPart(c = get())) {
-			sb.append(c);
+		if (chars != null)
+			current = RUNS.skipIdentifierPart(chars, current, charCount);
+		while (isIdentifierPart(get()))
 			advance();
-		}
-		String content = sb.toString();
-		TokenType type = content.charAt(1) == '_' ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
-		return new Token(type, content, m);
+		return input.charAt(start + 1) == '_' ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
 	}
 
-	private Token type() {
-		SourceMeta m = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
+	private TokenType type() {
 		advance();
-		char c;
-		while (isLowercaseLetter(c = get())) {
-			sb.append(c);
+		while (isLowercaseLetter(get()))
 			advance();
-		}
-		TokenType type = getType(sb.toString());
-		if (type == null)
-			throw new IllegalStateException("Invalid type " + sb.toString());
-		return new Token(type, sb.toString(), m);
+		return lookupType();
 	}
 	
-	private Token symbol() {
-		SourceMeta meta = genMeta();
-		StringBuilder sb = new StringBuilder();
-		sb.append(get());
-		advance();
-		
-		char c;
-		while (isSymbolChar(c = get())) {
-			sb.append(c);
-			advance();
-		}
-		TokenType type = getSymbolType(sb.toString());
-		while (type == null) {
-			retract();
-			sb.replace(sb.length() - 1, sb.length(), "");
-			type = getSymbolType(sb.toString());
+	private TokenType symbol() {
+		TokenType type = null;
+		int end = current;
+		int node = 0;
+		int next;
+		while ((next = SYMBOLS.step(node, get())) != 0) {
+			node = next;
+			advance();
+			if (SYMBOLS.typeOf(node) != null) {
+				type = SYMBOLS.typeOf(node);
+				end = current;
+			}
 		}
-		return new Token(type, sb.toString(), meta);
+		if (type == null)
+			return fail(LexError.INVALID_SYMBOL, "Invalid symbol " + input.charAt(start));
+		current = end;
+		return type;
 	}
 
-	private Token charLiteral() {
-		SourceMeta m = genMeta();
+	private TokenType charLiteral() {
 		advance();
-		String content = stringLiteralContent();
+		if (!hasChar())
+			return fail(LexError.INVALID_CHARACTER_LITERAL, "Invalid character literal");
+		stringLiteralContent();
+		if (error != null)
+			return TokenType.ERROR;
 		if (get() != '\'')
-			throw new IllegalStateException("Invalid character literal");
+			return fail(LexError.INVALID_CHARACTER_LITERAL, "Invalid character literal");
 		advance();
-		return new Token(TokenType.CHARACTER_LITERAL, content, m);
+		return TokenType.CHARACTER_LITERAL;
 	}
 	
-	private Token stringLiteral() {
-		SourceMeta m = genMeta();
+	private TokenType stringLiteral() {
 		advance();
-		StringBuilder sb = new StringBuilder();
-		while (get() != '"')
-			sb.append(stringLiteralContent());
+		skipStringContent();
+		while (get() != '"') {
+			if (!hasChar())
+				return fail(LexError.UNTERMINATED_STRING, "Unterminated string literal");
+			stringLiteralContent();
+			if (error != null)
+				return TokenType.ERROR;
+			skipStringContent();
+		}
 		advance();
-		return new Token(TokenType.STRING_LITERAL, sb.toString(), m);
+		return TokenType.STRING_LITERAL;
 	}
 	
-	private String unicodeEscapeSequence(int numDigits) {
-		StringBuilder sb = new StringBuilder();
+	private void skipStringContent() {
+		if (chars != null) {
+			current = RUNS.skipStringContent(chars, current, charCount);
+			return;
+		}
+		int end = input.length();
+		char c;
+		while (current < end && (c = input.charAt(current)) != '"' && c != '\\')
+			current++;
+	}
+	
+	private void unicodeEscapeSequence(int numDigits) {
+		long value = 0;
 		for (int i = 0; i < numDigits; i++) {
 			char c = get();
-			if (!isHexDigit(c))
-				throw new IllegalStateException("Invalid unicode escape sequence");
-			sb.append(c);
+			if (!isHexDigit(c)) {
+				fail(LexError.INVALID_ESCAPE, "Invalid unicode escape sequence");
+				return;
+			}
+			value = value * 16 + Character.digit(c, 16);
 			advance();
 		}
-		return numDigits == 4 ? "\\u" + sb.toString() : "\\U" + sb.toString();
+		if (value > Character.MAX_CODE_POINT)
+			fail(LexError.INVALID_ESCAPE, "Invalid unicode escape sequence");
 	}
 
-	private String hexEscapeSequence() {
-		StringBuilder sb = new StringBuilder();
-		sb.append("\\x");
-		if (!isHexDigit(get()))
-			throw new IllegalStateException("Invalid hexadecimal escape sequence");
-		sb.append(get());
-		advance();
+	private void hexEscapeSequence() {
+		if (!isHexDigit(get())) {
+			fail(LexError.INVALID_ESCAPE, "Invalid hexadecimal escape sequence");
+			return;
+		}
+		int value = 0;
 		char c;
 		while (isHexDigit(c = get())) {
-			sb.append(c);
+			value = Math.min(value * 16 + Character.digit(c, 16), Character.MAX_CODE_POINT + 1);
 			advance();
 		}
-		return sb.toString();
+		if (value > Character.MAX_CODE_POINT)
+			fail(LexError.INVALID_ESCAPE, "Invalid hexadecimal escape sequence");
+	}
+	
+	private TokenType checkEscapes(TokenType type) {
+		CharSequence in = input;
+		for (int i = start; i < current; i++) {
+			if (in.charAt(i) != '\\')
+				continue;
+			char c = in.charAt(++i);
+			if (c != 'x' && c != 'u' && c != 'U')
+				continue;
+			int digits = c == 'x' ? Integer.MAX_VALUE : c == 'u' ? 4 : 8;
+			long value = 0;
+			for (int count = 0; count < digits && i + 1 < current && isHexDigit(in.charAt(i + 1)); count++, i++)
+				value = Math.min(value * 16 + Character.digit(in.charAt(i + 1), 16), Character.MAX_CODE_POINT + 1);
+			if (value > Character.MAX_CODE_POINT)
+				return fail(LexError.INVALID_ESCAPE, c == 'x' ? "Invalid hexadecimal escape sequence" : "Invalid unicode escape sequence");
+		}
+		return type;
 	}
 
-	private String octalEscapeSequence() {
+	private void octalEscapeSequence() {
 		int count = 1;
-		char c;
-		StringBuilder sb = new StringBuilder();
-		sb.append("\\" + get());
 		advance();
-		while (count < 3 && isOctalDigit(c = get())) {
-			sb.append(c);
+		while (count < 3 && isOctalDigit(get())) {
 			advance();
 			count++;
 		}
-		return sb.toString();
 	}
 	
-	private String stringEscapeSequence() {
+	private void stringEscapeSequence() {
 		char c = get();
-		if (c == 'b') {
-			advance();
-			return "\\b";
-		} else if (c == 'f') {
+		if (c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't' || c == 'v'
+		|| c == '\\' || c == '?' || c == 'a' || c == '\'' || c == '"') {
 			advance();
-			return "\\f";
-		} else if (c == 'n') {
-			advance();
-			return "\\n";
-		} else if (c == 'r') {
-			advance();
-			return "\\r";
-		} else if (c == 't') {
-			advance();
-			return "\\t";
-		} else if (c == 'v') {
-			advance();
-			return "\\v";
-		} else if (c == '\\') {
-			advance();
-			return "\\\\";
-		} else if (c == '?') {
-			advance();
-			return "\\?";
-		} else if (c == 'a') {
-			advance();
-			return "\\a";
-		} else if (c == '\'') {
-			advance();
-			return "\\'";
-		} else if (c == '"') {
-			advance();
-			return "\\\"";
 		} else if (c == 'x') {
 			advance();
-			return hexEscapeSequence();
+			hexEscapeSequence();
 		} else if (c == 'u') {
 			advance();
-			return unicodeEscapeSequence(4);
+			unicodeEscapeSequence(4);
 		} else if (c == 'U') {
 			advance();
-			return unicodeEscapeSequence(8);
+			unicodeEscapeSequence(8);
 		} else if (isOctalDigit(c)) {
-			return octalEscapeSequence();
+			octalEscapeSequence();
 		} else
-			throw new IllegalStateException("Invalid escape sequence '\\" + c + "'");
+			fail(LexError.INVALID_ESCAPE, "Invalid escape sequence '\\" + c + "'");
 	}
 	
-	private String stringLiteralContent() {
+	private void stringLiteralContent() {
 		char c = get();
-		if (c == '\\') {
-			advance();
-			return stringEscapeSequence();
-		} else {
-			advance();
-			return String.valueOf(c);
-		}
+		advance();
+		if (c == '\\')
+			stringEscapeSequence();
 	}
 	
 }
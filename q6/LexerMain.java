@@ -1,6 +1,8 @@
 
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,10 +12,18 @@ import java.util.List;
 public class LexerMain {
 
 	public static void main(String[] args) {
-		Path input = Paths.get(args[0]);
-		String data = "";
+		if (args[0].equals("-")) {
+			Lexer lexer = new Lexer(Paths.get("-"), new InputStreamReader(System.in, StandardCharsets.UTF_8), false);
+			Token token;
+			while ((token = lexer.nextToken()) != null)
+				System.out.println(token);
+			return;
+		}
+		boolean mapped = args.length > 1 && args[0].equals("--mmap");
+		Path input = Paths.get(args[mapped ? 1 : 0]);
+		CharSequence data = "";
 		try {
-			data = Files.readString(input);
+			data = mapped ? MappedText.map(input) : Files.readString(input);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
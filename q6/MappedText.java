@@ -0,0 +1,74 @@
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedText implements CharSequence {
+
+	private ByteBuffer bytes;
+	private int offset;
+	private int length;
+	
+	private MappedText(ByteBuffer bytes) {
+		this(bytes, 0, bytes.limit());
+	}
+	
+	private MappedText(ByteBuffer bytes, int offset, int length) {
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	public static CharSequence map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalStateException("File too large to map: " + file);
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return isAscii(bytes) ? new MappedText(bytes) : StandardCharsets.UTF_8.newDecoder().decode(bytes).toString();
+		}
+	}
+	
+	private static boolean isAscii(ByteBuffer bytes) {
+		int limit = bytes.limit();
+		int i = 0;
+		for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+			if ((bytes.getLong(i) & 0x8080808080808080L) != 0)
+				return false;
+		}
+		for (; i < limit; i++) {
+			if (bytes.get(i) < 0)
+				return false;
+		}
+		return true;
+	}
+	
+	@Override
+	public int length() {
+		return length;
+	}
+	
+	@Override
+	public char charAt(int index) {
+		return (char) bytes.get(offset + index);
+	}
+	
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+		return new MappedText(bytes, offset + start, end - start);
+	}
+	
+	@Override
+	public String toString() {
+		byte[] data = new byte[length];
+		bytes.get(offset, data);
+		return new String(data, StandardCharsets.US_ASCII);
+	}
+	
+}
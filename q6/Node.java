@@ -2,4 +2,20 @@
 
 public abstract class Node {
 
+	private int padding;
+	private int length;
+	
+	public int getPadding() {
+		return padding;
+	}
+	
+	public int getLength() {
+		return length;
+	}
+	
+	void setSpan(int padding, int length) {
+		this.padding = padding;
+		this.length = length;
+	}
+
 }
@@ -0,0 +1,7 @@
+
+
+public enum NodeKind {
+
+	WHILE, IF, ELSE_IF, ELSE, BLOCK, ASSIGNMENT, BINARY, PREFIX, LITERAL, CALL, ERROR;
+
+}
@@ -0,0 +1,29 @@
+
+
+interface NodeSink {
+
+	int whileStatement(Token keyword, int condition, int content);
+
+	int ifStatement(Token keyword, int condition, int content, int[] elseIfs, int from, int to, int elseBranch);
+
+	int elseIf(Token keyword, int condition, int content);
+
+	int elseBranch(Token keyword, int content);
+
+	int block(Token brace, int[] statements, int from, int to);
+
+	int assignment(Token id, int expression);
+
+	int binary(Token op, int left, int right);
+
+	int prefix(Token op, int arg);
+
+	int literal(Token token);
+
+	int call(Token id);
+
+	int error(Diagnostic diagnostic);
+
+	void setSpan(int node, int padding, int length);
+
+}
@@ -0,0 +1,185 @@
+
+
+import java.math.BigInteger;
+
+final class NumberDecoder {
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private long bits;
+	private BigInteger bigValue;
+	private NumberSuffix suffix;
+
+	void decode(TokenType type, CharSequence input, int start, int end) {
+		if (type == TokenType.INTEGER_LITERAL)
+			decodeInteger(input, start, end);
+		else
+			decodeFloat(input, start, end);
+	}
+
+	long getBits() {
+		return bits;
+	}
+
+	BigInteger getBigValue() {
+		return bigValue;
+	}
+
+	NumberSuffix getSuffix() {
+		return suffix;
+	}
+
+	private void decodeInteger(CharSequence input, int start, int end) {
+		int radix = 10;
+		int i = start;
+		if (end - start > 1 && input.charAt(start) == '0') {
+			char c = input.charAt(start + 1);
+			if (c == 'x' || c == 'X') {
+				radix = 16;
+				i += 2;
+			} else if (c == 'b' || c == 'B') {
+				radix = 2;
+				i += 2;
+			} else {
+				radix = 8;
+			}
+		}
+		long max = Long.MAX_VALUE / radix;
+		long maxDigit = Long.MAX_VALUE % radix;
+		long value = 0;
+		BigInteger big = null;
+		BigInteger bigRadix = null;
+		int d;
+		for (; i < end && (d = Character.digit(input.charAt(i), radix)) >= 0; i++) {
+			if (big != null) {
+				big = big.multiply(bigRadix).add(BigInteger.valueOf(d));
+			} else if (value > max || (value == max && d > maxDigit)) {
+				bigRadix = BigInteger.valueOf(radix);
+				big = BigInteger.valueOf(value).multiply(bigRadix).add(BigInteger.valueOf(d));
+			} else {
+				value = value * radix + d;
+			}
+		}
+		bits = value;
+		bigValue = big;
+		suffix = intSuffix(input, i, end);
+	}
+
+	private static NumberSuffix intSuffix(CharSequence input, int i, int end) {
+		boolean unsigned = false;
+		int longs = 0;
+		for (; i < end; i++) {
+			char c = input.charAt(i);
+			if (c == 'u' || c == 'U')
+				unsigned = true;
+			else
+				longs++;
+		}
+		if (longs == 2)
+			return unsigned ? NumberSuffix.ULL : NumberSuffix.LL;
+		else if (longs == 1)
+			return unsigned ? NumberSuffix.UL : NumberSuffix.L;
+		return unsigned ? NumberSuffix.U : NumberSuffix.NONE;
+	}
+
+	private void decodeFloat(CharSequence input, int start, int end) {
+		char last = input.charAt(end - 1);
+		if (last == 'f' || last == 'F') {
+			suffix = NumberSuffix.F;
+			end--;
+		} else if (last == 'l' || last == 'L') {
+			suffix = NumberSuffix.L;
+			end--;
+		} else {
+			suffix = NumberSuffix.NONE;
+		}
+		boolean hex = end - start > 1 && input.charAt(start) == '0' && (input.charAt(start + 1) == 'x' || input.charAt(start + 1) == 'X');
+		double value = hex ? hexFloat(input, start + 2, end) : decimalFloat(input, start, end);
+		if (Double.isNaN(value))
+			value = Double.parseDouble(input.subSequence(start, end).toString());
+		bits = Double.doubleToRawLongBits(value);
+		bigValue = null;
+	}
+
+	private static double decimalFloat(CharSequence input, int i, int end) {
+		long mantissa = 0;
+		int scale = 0;
+		boolean fraction = false;
+		boolean exact = true;
+		for (; i < end; i++) {
+			char c = input.charAt(i);
+			if (c == '.') {
+				fraction = true;
+			} else if (c >= '0' && c <= '9') {
+				if (mantissa >= 1L << 53) {
+					exact = false;
+				} else {
+					mantissa = mantissa * 10 + (c - '0');
+					if (fraction)
+						scale--;
+				}
+				if (!exact && !fraction)
+					scale++;
+			} else {
+				break;
+			}
+		}
+		int exponent = scale + exponent(input, i, end);
+		if (mantissa == 0)
+			return 0.0;
+		if (!exact || mantissa >= 1L << 53 || exponent < -22 || exponent > 22)
+			return Double.NaN;
+		return exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+	}
+
+	private static double hexFloat(CharSequence input, int i, int end) {
+		long mantissa = 0;
+		int scale = 0;
+		boolean fraction = false;
+		int d;
+		for (; i < end; i++) {
+			char c = input.charAt(i);
+			if (c == '.') {
+				fraction = true;
+			} else if ((d = Character.digit(c, 16)) >= 0) {
+				if (mantissa >= 1L << 53)
+					return Double.NaN;
+				mantissa = mantissa << 4 | d;
+				if (fraction)
+					scale -= 4;
+			} else {
+				break;
+			}
+		}
+		if (mantissa == 0)
+			return 0.0;
+		if (mantissa >= 1L << 53)
+			return Double.NaN;
+		double value = Math.scalb((double) mantissa, scale + exponent(input, i, end));
+		if (Double.isInfinite(value) || Math.getExponent(value) < Double.MIN_EXPONENT)
+			return Double.NaN;
+		return value;
+	}
+
+	private static int exponent(CharSequence input, int i, int end) {
+		if (i >= end)
+			return 0;
+		i++;
+		boolean negative = false;
+		char c = input.charAt(i);
+		if (c == '+' || c == '-') {
+			negative = c == '-';
+			i++;
+		}
+		int exponent = 0;
+		for (; i < end; i++) {
+			if (exponent < 100000)
+				exponent = exponent * 10 + (input.charAt(i) - '0');
+		}
+		return negative ? -exponent : exponent;
+	}
+
+}
@@ -0,0 +1,7 @@
+
+
+public enum NumberSuffix {
+
+	NONE, U, L, UL, LL, ULL, F;
+
+}
@@ -0,0 +1,53 @@
+
+
+import java.math.BigInteger;
+
+public class NumberToken extends Token {
+
+	private long longValue;
+	private BigInteger bigValue;
+	private double doubleValue;
+	private NumberSuffix suffix;
+
+	public NumberToken(TokenType type, SourceText text, int offset, int length, long bits, BigInteger bigValue, NumberSuffix suffix) {
+		super(type, text, offset, length);
+		setValue(bits, bigValue, suffix);
+	}
+
+	public NumberToken(TokenType type, CharSequence input, int offset, int length, SourceMeta meta, long bits, BigInteger bigValue, NumberSuffix suffix) {
+		super(type, Token.data(type, input, offset, length), offset, length, meta);
+		setValue(bits, bigValue, suffix);
+	}
+
+	private void setValue(long bits, BigInteger bigValue, NumberSuffix suffix) {
+		this.suffix = suffix;
+		if (getType() == TokenType.INTEGER_LITERAL) {
+			this.longValue = bits;
+			this.bigValue = bigValue;
+			this.doubleValue = bigValue != null ? bigValue.doubleValue() : bits;
+		} else {
+			this.doubleValue = Double.longBitsToDouble(bits);
+		}
+	}
+
+	public long getLongValue() {
+		return bigValue != null ? bigValue.longValue() : longValue;
+	}
+
+	public BigInteger getBigValue() {
+		return bigValue != null ? bigValue : BigInteger.valueOf(longValue);
+	}
+
+	public boolean fitsLong() {
+		return bigValue == null;
+	}
+
+	public double getDoubleValue() {
+		return doubleValue;
+	}
+
+	public NumberSuffix getSuffix() {
+		return suffix;
+	}
+
+}
@@ -0,0 +1,47 @@
+
+
+import java.util.Arrays;
+
+final class OperatorTrie {
+
+	private static final int ALPHABET = 128;
+
+	private int[] children;
+	private TokenType[] types;
+	private int size;
+	
+	OperatorTrie() {
+		this.children = new int[ALPHABET * 8];
+		this.types = new TokenType[8];
+		this.size = 1;
+	}
+	
+	void add(String operator, TokenType type) {
+		int node = 0;
+		for (int i = 0; i < operator.length(); i++) {
+			char c = operator.charAt(i);
+			if (c >= ALPHABET)
+				throw new IllegalArgumentException("Operators must be ASCII: " + operator);
+			int child = children[node * ALPHABET + c];
+			if (child == 0) {
+				if (size == types.length) {
+					children = Arrays.copyOf(children, children.length * 2);
+					types = Arrays.copyOf(types, types.length * 2);
+				}
+				child = size++;
+				children[node * ALPHABET + c] = child;
+			}
+			node = child;
+		}
+		types[node] = type;
+	}
+	
+	int step(int node, char c) {
+		return c < ALPHABET ? children[node * ALPHABET + c] : 0;
+	}
+	
+	TokenType typeOf(int node) {
+		return types[node];
+	}
+	
+}
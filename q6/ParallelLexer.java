@@ -0,0 +1,106 @@
+
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParallelLexer {
+
+	private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+	private Lexer lexer;
+	private CharSequence input;
+	private int chunkSize;
+	
+	public ParallelLexer(Path file, CharSequence input, int chunkSize) {
+		this.lexer = new Lexer(file, input, true);
+		this.input = input;
+		this.chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize);
+	}
+	
+	public static TokenBuffer lex(Path file, CharSequence input) {
+		int parallelism = ForkJoinPool.commonPool().getParallelism();
+		return new ParallelLexer(file, input, input.length() / (parallelism * 4)).lex(ForkJoinPool.commonPool());
+	}
+	
+	public TokenBuffer lex(ForkJoinPool pool) {
+		int[] bounds = split();
+		if (bounds.length <= 2)
+			return TokenBuffer.lex(lexer);
+		
+		List<Callable<TokenBuffer>> tasks = new ArrayList<>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			int from = bounds[i];
+			int to = bounds[i + 1];
+			tasks.add(() -> speculate(from, to));
+		}
+		List<Future<TokenBuffer>> results = pool.invokeAll(tasks);
+		
+		TokenBuffer out = new TokenBuffer(lexer.getText(), TokenBuffer.capacityFor(input.length()));
+		int pos = 0;
+		for (int i = 0; i + 1 < bounds.length; i++)
+			pos = reconcile(out, pos, bounds[i + 1], join(results.get(i)));
+		return out;
+	}
+	
+	private int[] split() {
+		int n = input.length();
+		int[] bounds = new int[n / chunkSize + 2];
+		int count = 1;
+		for (int target = chunkSize; target < n; target += chunkSize) {
+			int bound = target;
+			int limit = Math.min(n, target + chunkSize / 2);
+			while (bound < limit && input.charAt(bound - 1) != '\n')
+				bound++;
+			if (bound > bounds[count - 1] && bound < n)
+				bounds[count++] = bound;
+		}
+		bounds[count++] = n;
+		return Arrays.copyOf(bounds, count);
+	}
+	
+	private TokenBuffer speculate(int from, int to) {
+		TokenBuffer chunk = new TokenBuffer(lexer.getText(), TokenBuffer.capacityFor(to - from));
+		Lexer l = lexer.fork(from);
+		try {
+			TokenType type;
+			while ((type = l.scanToken()) != null && l.getTokenStart() < to)
+				chunk.add(type, l.getTokenStart(), l.getTokenEnd() - l.getTokenStart(), l.getNumber());
+		} catch (RuntimeException e) {
+			return null;
+		}
+		return chunk;
+	}
+	
+	private TokenBuffer join(Future<TokenBuffer> result) {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while lexing", e);
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+	
+	private int reconcile(TokenBuffer out, int pos, int to, TokenBuffer chunk) {
+		Lexer l = lexer.fork(pos);
+		TokenType type;
+		while ((type = l.scanToken()) != null && l.getTokenStart() < to) {
+			int index = chunk == null ? -1 : chunk.indexOf(l.getTokenStart());
+			if (index >= 0) {
+				out.addAll(chunk, index, chunk.size());
+				return chunk.getOffset(chunk.size() - 1) + chunk.getLength(chunk.size() - 1);
+			}
+			out.add(type, l.getTokenStart(), l.getTokenEnd() - l.getTokenStart(), l.getNumber());
+			pos = l.getTokenEnd();
+		}
+		return pos;
+	}
+	
+}
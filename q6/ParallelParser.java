@@ -0,0 +1,98 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParallelParser {
+
+	private static final int MIN_BLOCK_SIZE = 1 << 10;
+
+	private TokenBuffer tokens;
+	private int blockSize;
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+	private int count;
+
+	public ParallelParser(TokenBuffer tokens, int blockSize) {
+		this.tokens = tokens;
+		this.blockSize = Math.max(MIN_BLOCK_SIZE, blockSize);
+	}
+
+	public static BlockNode parse(TokenBuffer tokens) {
+		int parallelism = ForkJoinPool.commonPool().getParallelism();
+		return new ParallelParser(tokens, tokens.size() / (parallelism * 4)).parse(ForkJoinPool.commonPool());
+	}
+
+	public BlockNode parse(ForkJoinPool pool) {
+		scan();
+		TokenBuffer.Cursor cursor = tokens.cursor();
+		Parser parser = new Parser(cursor);
+		if (count == 0)
+			return parser.parseProgram();
+
+		List<Callable<BlockNode>> tasks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int from = starts[i];
+			int to = ends[i];
+			tasks.add(() -> parseBlock(from, to));
+		}
+		List<Future<BlockNode>> results = pool.invokeAll(tasks);
+
+		BlockNode[] blocks = new BlockNode[count];
+		for (int i = 0; i < count; i++)
+			blocks[i] = join(results.get(i));
+		parser.useParsedBlocks(cursor, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), blocks);
+		return parser.parseProgram();
+	}
+
+	private void scan() {
+		count = 0;
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < tokens.size(); i++) {
+			TokenType type = tokens.getType(i);
+			if (type == TokenType.SM_LBRACE) {
+				if (depth++ == 0)
+					start = i;
+			} else if (type == TokenType.SM_RBRACE && depth > 0 && --depth == 0 && i + 1 - start >= blockSize) {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+					ends = Arrays.copyOf(ends, count * 2);
+				}
+				starts[count] = start;
+				ends[count++] = i + 1;
+			}
+		}
+	}
+
+	private BlockNode parseBlock(int from, int to) {
+		Parser parser = new Parser(tokens.cursor(from, to));
+		BlockNode block = parser.parseBlock();
+		return parser.peek(0) == null ? block : null;
+	}
+
+	private BlockNode join(Future<BlockNode> result) {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while parsing", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			// ForkJoinTask rethrows a copy made on the joining thread with the worker's exception as its cause
+			if (cause != null && cause.getCause() != null && cause.getCause().getClass() == cause.getClass())
+				cause = cause.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException("Block parse failed", cause);
+		}
+	}
+
+}
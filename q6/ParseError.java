@@ -0,0 +1,7 @@
+
+
+public enum ParseError {
+
+	UNEXPECTED_TOKEN, UNEXPECTED_END, EXPECTED_IDENTIFIER;
+
+}
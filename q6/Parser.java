@@ -2,102 +2,330 @@
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 
 public class Parser {
 
-	private Lexer lexer;
-	private Token current;
+	private static final int LOOKAHEAD = 64;
+	static final int[] BINDING_POWER = new int[TokenType.values().length];
+	static final boolean[] PREFIX = new boolean[TokenType.values().length];
 	
-	public Parser(Lexer lexer) {
-		this.lexer = lexer;
+	static {
+		BINDING_POWER[TokenType.SM_LOGICAL_OR.ordinal()] = 1;
+		BINDING_POWER[TokenType.SM_LOGICAL_AND.ordinal()] = 2;
+		BINDING_POWER[TokenType.SM_PLUS.ordinal()] = 3;
+		BINDING_POWER[TokenType.SM_MINUS.ordinal()] = 3;
+		BINDING_POWER[TokenType.SM_ASTERISK.ordinal()] = 4;
+		BINDING_POWER[TokenType.SM_SLASH.ordinal()] = 4;
+		BINDING_POWER[TokenType.SM_PERCENT.ordinal()] = 4;
+		PREFIX[TokenType.SM_LOGICAL_NOT.ordinal()] = true;
+	}
+	
+	private TokenWindow window;
+	private NodeSink sink;
+	private TreeBuilder tree;
+	private int[] stack = new int[16];
+	private int stackSize;
+	private Deque<Token> prefixOps = new ArrayDeque<>();
+	private Token last;
+	private TokenBuffer.Cursor cursor;
+	private int base;
+	private int[] parsedStarts;
+	private int[] parsedEnds;
+	private BlockNode[] parsedBlocks;
+	private int nextParsed;
+	private boolean recovering;
+	private int statements;
+	private List<Diagnostic> diagnostics = new ArrayList<>();
+	
+	public Parser(TokenSource tokens) {
+		this.window = new TokenWindow(tokens, LOOKAHEAD);
+		this.sink = this.tree = new TreeBuilder();
+	}
+	
+	Parser(TokenSource tokens, NodeSink sink) {
+		this.window = new TokenWindow(tokens, LOOKAHEAD);
+		this.sink = sink;
+	}
+	
+	public Parser(TokenBuffer buffer) {
+		this(buffer.cursor());
+	}
+	
+	public void reset(TokenSource tokens) {
+		this.window.reset(tokens);
+		this.prefixOps.clear();
+		this.stackSize = 0;
+		this.last = null;
+		this.statements = 0;
+		this.diagnostics.clear();
+		this.parsedBlocks = null;
+	}
+	
+	public void reset(TokenBuffer buffer) {
+		reset(buffer.cursor());
+	}
+	
+	void useParsedBlocks(TokenBuffer.Cursor cursor, int[] starts, int[] ends, BlockNode[] blocks) {
+		reset(cursor);
+		this.cursor = cursor;
+		this.base = cursor.getIndex();
+		this.parsedStarts = starts;
+		this.parsedEnds = ends;
+		this.parsedBlocks = blocks;
+		this.nextParsed = 0;
+	}
+	
+	public boolean isRecovering() {
+		return recovering;
+	}
+	
+	public void setRecovering(boolean recovering) {
+		this.recovering = recovering;
+	}
+	
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+	
+	public Token peek(int n) {
+		return window.peek(n);
+	}
+	
+	public int mark() {
+		return window.mark();
+	}
+	
+	public void reset(int mark) {
+		window.reset(mark);
 	}
 	
 	private Token lh() {
-		return current == null ? current = lexer.nextToken() : current;
+		return window.peek(0);
+	}
+	
+	private TokenType type() {
+		Token t = lh();
+		return t == null ? null : t.getType();
+	}
+	
+	private int offset() {
+		Token t = lh();
+		return t == null ? end() : t.getOffset();
+	}
+	
+	private int end() {
+		return last == null ? 0 : last.getOffset() + last.getLength();
 	}
 	
 	private void advance() {
-		current = lexer.nextToken();
+		Token t = lh();
+		if (t != null)
+			last = t;
+		window.advance();
 	}
 	
 	private Token match(TokenType type) {
 		Token t = lh();
-		if (t.getType() != type)
-			throw new IllegalStateException("Expected " + type + ", received " + t);
+		if (t == null || t.getType() != type)
+			throw fail(ParseError.UNEXPECTED_TOKEN, "Expected " + type + ", received " + t);
 		advance();
 		return t;
 	}
 	
+	private RuntimeException fail(ParseError code, String message) {
+		if (!recovering || statements == 0)
+			return new IllegalStateException(message);
+		Token t = lh();
+		if (t == null)
+			diagnostics.add(new Diagnostic(ParseError.UNEXPECTED_END, message, end(), 0, last == null ? null : last.getMeta()));
+		else
+			diagnostics.add(new Diagnostic(code, message, t.getOffset(), t.getLength(), t.getMeta()));
+		return Recovery.INSTANCE;
+	}
+	
+	private int synchronize(int start) {
+		Diagnostic diagnostic = diagnostics.get(diagnostics.size() - 1);
+		TokenType t;
+		while ((t = type()) != null && t != TokenType.SM_RBRACE && t != TokenType.KW_WHILE && t != TokenType.KW_IF) {
+			advance();
+			if (t == TokenType.SM_SEMICOLON)
+				break;
+		}
+		if (window.mark() == start && t != null)
+			advance();
+		return sink.error(diagnostic);
+	}
+	
 	public WhileNode parseWhileStatement() {
-		match(TokenType.KW_WHILE);
+		return (WhileNode) tree.take(whileStatement());
+	}
+	
+	public IfNode parseIfStatement() {
+		return (IfNode) tree.take(ifStatement());
+	}
+	
+	public BlockNode parseProgram() {
+		return (BlockNode) tree.take(program());
+	}
+	
+	Node parseContent(int anchor) {
+		return tree.take(content(anchor));
+	}
+	
+	BlockNode parseBlock() {
+		return (BlockNode) tree.take(block());
+	}
+	
+	public AssignmentNode parseAssignmentStatement() {
+		return (AssignmentNode) tree.take(assignmentStatement());
+	}
+	
+	public ExpressionNode parseExpression() {
+		return (ExpressionNode) tree.take(expression());
+	}
+	
+	int whileStatement() {
+		int start = offset();
+		Token keyword = match(TokenType.KW_WHILE);
 		match(TokenType.SM_LPAREN);
-		ExpressionNode condition = parseExpression();
+		int condition = expression();
 		match(TokenType.SM_RPAREN);
-		Node content = parseContent();
-		return new WhileNode(condition, content);
+		int content = content(start);
+		return sink.whileStatement(keyword, condition, content);
 	}
 	
-	public IfNode parseIfStatement() {
-		match(TokenType.KW_IF);
+	int ifStatement() {
+		int start = offset();
+		Token keyword = match(TokenType.KW_IF);
 		match(TokenType.SM_LPAREN);
-		ExpressionNode condition = parseExpression();
+		int condition = expression();
 		match(TokenType.SM_RPAREN);
-		Node content = parseContent();
-		List<ElseIfNode> elseIfNodes = new ArrayList<>();
-		Optional<Node> elseNode = Optional.empty();
-		while (lh().getType() == TokenType.KW_ELSE) {
+		int content = content(start);
+		int from = stackSize;
+		int elseBranch = -1;
+		while (type() == TokenType.KW_ELSE) {
+			int anchor = end();
+			Token elseKeyword = lh();
 			advance();
-			if (lh().getType() == TokenType.KW_IF) {
+			if (type() == TokenType.KW_IF) {
+				Token ifKeyword = lh();
 				advance();
 				match(TokenType.SM_LPAREN);
-				ExpressionNode elseIfCondition = parseExpression();
+				int elseIfCondition = expression();
 				match(TokenType.SM_RPAREN);
-				Node elseIfContent = parseContent();
-				elseIfNodes.add(new ElseIfNode(elseIfCondition, elseIfContent));
+				int elseIfContent = content(anchor);
+				push(sink.elseIf(ifKeyword, elseIfCondition, elseIfContent));
 			} else {
-				elseNode = Optional.of(parseContent());
+				elseBranch = sink.elseBranch(elseKeyword, content(anchor));
 				break;
 			}
 		}
-		return new IfNode(condition, content, elseIfNodes, elseNode);
+		int node = sink.ifStatement(keyword, condition, content, stack, from, stackSize, elseBranch);
+		stackSize = from;
+		return node;
+	}
+	
+	int program() {
+		int from = stackSize;
+		while (lh() != null)
+			push(content(end()));
+		int program = sink.block(null, stack, from, stackSize);
+		stackSize = from;
+		sink.setSpan(program, 0, end());
+		return program;
+	}
+	
+	int content(int anchor) {
+		int start = offset();
+		int node;
+		if (!recovering)
+			node = statement();
+		else {
+			int mark = window.mark();
+			int depth = stackSize;
+			statements++;
+			try {
+				node = statement();
+			} catch (Recovery e) {
+				prefixOps.clear();
+				stackSize = depth;
+				node = synchronize(mark);
+			} finally {
+				statements--;
+			}
+		}
+		sink.setSpan(node, start - anchor, end() - start);
+		return node;
 	}
 	
-	private Node parseContent() {
-		TokenType t = lh().getType();
+	private int statement() {
+		TokenType t = type();
 		if (t == TokenType.KW_IF)
-			return parseIfStatement();
+			return ifStatement();
 		else if (t == TokenType.KW_WHILE)
-			return parseWhileStatement();
+			return whileStatement();
 		else if (t == TokenType.SM_LBRACE)
-			return parseBlock();
+			return block();
 		else
-			return parseAssignmentStatement();
+			return assignmentStatement();
 	}
 	
-	private BlockNode parseBlock() {
-		match(TokenType.SM_LBRACE);
-		List<Node> content = new ArrayList<>();
-		while (lexer.hasNext() && lh().getType() != TokenType.SM_RBRACE) {
-			content.add(parseContent());
+	int block() {
+		if (parsedBlocks != null) {
+			BlockNode parsed = takeParsedBlock();
+			if (parsed != null)
+				return tree.add(parsed);
+		}
+		int start = offset();
+		Token brace = match(TokenType.SM_LBRACE);
+		int from = stackSize;
+		int anchor = start;
+		while (lh() != null && type() != TokenType.SM_RBRACE) {
+			push(content(anchor));
+			anchor = end();
 		}
 		match(TokenType.SM_RBRACE);
-		return new BlockNode(content);
+		int block = sink.block(brace, stack, from, stackSize);
+		stackSize = from;
+		return block;
 	}
 	
-	public AssignmentNode parseAssignmentStatement() {
+	private BlockNode takeParsedBlock() {
+		int index = base + window.mark();
+		while (nextParsed < parsedStarts.length && parsedStarts[nextParsed] < index)
+			nextParsed++;
+		if (nextParsed == parsedStarts.length || parsedStarts[nextParsed] != index || parsedBlocks[nextParsed] == null)
+			return null;
+		cursor.seek(parsedEnds[nextParsed] - 1);
+		last = cursor.nextToken();
+		base = cursor.getIndex();
+		window.reset(cursor);
+		return parsedBlocks[nextParsed++];
+	}
+	
+	private void push(int node) {
+		if (stackSize == stack.length)
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		stack[stackSize++] = node;
+	}
+	
+	int assignmentStatement() {
 		// Assuming the identifier for the question is supposed to be the same one from question 1:
 		Token id = parseId();
 		match(TokenType.SM_ASSIGN);
-		ExpressionNode expression = parseExpression();
+		int expression = expression();
 		match(TokenType.SM_SEMICOLON);
-		return new AssignmentNode(id, expression);
+		return sink.assignment(id, expression);
 	}
 	
 	private Token parseId() {
-		TokenType t = lh().getType();
+		TokenType t = type();
+		if (t == null)
+			throw fail(ParseError.UNEXPECTED_END, "Expected identifier, received null");
 		switch (t) {
 		case ID_PRIVATE_ARRAY:
 		case ID_PRIVATE_HASH:
@@ -107,88 +335,56 @@ public class Parser {
 		case ID_PUBLIC_SCALAR:
 			return match(t);
 		default:
-			throw new IllegalStateException("Expected identifier, received " + lh());
-		}
-	}
-	
-	public ExpressionNode parseExpression() {
-		return logicalOrExpression();
-	}
-	
-	private ExpressionNode logicalOrExpression() {
-		ExpressionNode arg0 = logicalAndExpression();
-		while (lh().getType() == TokenType.SM_LOGICAL_OR) {
-			Token op = match(TokenType.SM_LOGICAL_OR);
-			ExpressionNode arg1 = logicalAndExpression();
-			arg0 = new BinaryExpressionNode(op, arg0, arg1);
+			throw fail(ParseError.EXPECTED_IDENTIFIER, "Expected identifier, received " + lh());
 		}
-		return arg0;
 	}
 	
-	private ExpressionNode logicalAndExpression() {
-		ExpressionNode arg0 = additiveExpression();
-		while (lh().getType() == TokenType.SM_LOGICAL_AND) {
-			Token op = match(TokenType.SM_LOGICAL_AND);
-			ExpressionNode arg1 = additiveExpression();
-			arg0 = new BinaryExpressionNode(op, arg0, arg1);
-		}
-		return arg0;
+	int expression() {
+		return expression(1);
 	}
 	
-	private ExpressionNode additiveExpression() {
-		ExpressionNode arg0 = multiplicativeExpression();
-		while (isAdditiveOperator(lh().getType())) {
-			Token op = match(TokenType.SM_LOGICAL_OR);
-			ExpressionNode arg1 = multiplicativeExpression();
-			arg0 = new BinaryExpressionNode(op, arg0, arg1);
+	private int expression(int minPower) {
+		int arg0 = prefixExpression();
+		Token op;
+		int power;
+		while ((op = lh()) != null && (power = BINDING_POWER[op.getType().ordinal()]) >= minPower) {
+			advance();
+			int arg1 = expression(power + 1);
+			arg0 = sink.binary(op, arg0, arg1);
 		}
 		return arg0;
 	}
 	
-	private ExpressionNode multiplicativeExpression() {
-		ExpressionNode arg0 = prefixExpression();
-		while (isMultiplicativeOperator(lh().getType())) {
-			Token op = match(TokenType.SM_LOGICAL_OR);
-			ExpressionNode arg1 = prefixExpression();
-			arg0 = new BinaryExpressionNode(op, arg0, arg1);
+	private int prefixExpression() {
+		int depth = prefixOps.size();
+		Token op;
+		while ((op = lh()) != null && PREFIX[op.getType().ordinal()]) {
+			advance();
+			prefixOps.push(op);
 		}
-		return arg0;
-	}
-	
-	private boolean isAdditiveOperator(TokenType t) {
-		return t == TokenType.SM_PLUS || t == TokenType.SM_MINUS;
-	}
-	
-	private boolean isMultiplicativeOperator(TokenType t) {
-		return t == TokenType.SM_ASTERISK || t == TokenType.SM_SLASH || t == TokenType.SM_PERCENT;
-	}
-	
-	private ExpressionNode prefixExpression() {
-		Deque<Token> ops = new ArrayDeque<>();
-		while (lh().getType() == TokenType.SM_LOGICAL_NOT)
-			ops.push(match(TokenType.SM_LOGICAL_NOT));
-		ExpressionNode arg = primaryExpression();
-		while (!ops.isEmpty())
-			arg = new PrefixExpressionNode(ops.pop(), arg);
+		int arg = primaryExpression();
+		while (prefixOps.size() > depth)
+			arg = sink.prefix(prefixOps.pop(), arg);
 		return arg;
 	}
 	
-	private ExpressionNode primaryExpression() {
-		TokenType t = lh().getType();
+	private int primaryExpression() {
+		TokenType t = type();
 		if (t == TokenType.STRING_LITERAL || t == TokenType.INTEGER_LITERAL || t == TokenType.FLOATING_POINT_LITERAL) {
+			Token literal = lh();
 			advance();
-			return new LiteralExpressionNode(lh());
-		} else if (isId(t)) {
+			return sink.literal(literal);
+		} else if (t != null && isId(t)) {
 			Token id = match(t);
-			if (lh().getType() == TokenType.SM_LPAREN) {
+			if (type() == TokenType.SM_LPAREN) {
 				advance();
 				match(TokenType.SM_RPAREN);
-				return new FunctionCallExpressionNode(id);
+				return sink.call(id);
 			} else
-				return new LiteralExpressionNode(id);
+				return sink.literal(id);
 		} else {
 			match(TokenType.SM_LPAREN);
-			ExpressionNode result = parseExpression();
+			int result = expression();
 			match(TokenType.SM_RPAREN);
 			return result;
 		}
@@ -208,4 +404,104 @@ public class Parser {
 		}
 	}
 	
+	private static final class TreeBuilder implements NodeSink {
+		
+		private List<Node> nodes = new ArrayList<>();
+		
+		int add(Node node) {
+			nodes.add(node);
+			return nodes.size() - 1;
+		}
+		
+		Node take(int node) {
+			Node result = nodes.get(node);
+			nodes.clear();
+			return result;
+		}
+		
+		private ExpressionNode expression(int node) {
+			return (ExpressionNode) nodes.get(node);
+		}
+		
+		@Override
+		public int whileStatement(Token keyword, int condition, int content) {
+			return add(new WhileNode(expression(condition), nodes.get(content)));
+		}
+		
+		@Override
+		public int ifStatement(Token keyword, int condition, int content, int[] elseIfs, int from, int to, int elseBranch) {
+			List<ElseIfNode> elseIfNodes = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++)
+				elseIfNodes.add((ElseIfNode) nodes.get(elseIfs[i]));
+			Optional<Node> elseNode = elseBranch < 0 ? Optional.empty() : Optional.of(nodes.get(elseBranch));
+			return add(new IfNode(expression(condition), nodes.get(content), elseIfNodes, elseNode));
+		}
+		
+		@Override
+		public int elseIf(Token keyword, int condition, int content) {
+			return add(new ElseIfNode(expression(condition), nodes.get(content)));
+		}
+		
+		@Override
+		public int elseBranch(Token keyword, int content) {
+			return content;
+		}
+		
+		@Override
+		public int block(Token brace, int[] statements, int from, int to) {
+			List<Node> content = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++)
+				content.add(nodes.get(statements[i]));
+			return add(new BlockNode(content));
+		}
+		
+		@Override
+		public int assignment(Token id, int expression) {
+			return add(new AssignmentNode(id, expression(expression)));
+		}
+		
+		@Override
+		public int binary(Token op, int left, int right) {
+			return add(new BinaryExpressionNode(op, expression(left), expression(right)));
+		}
+		
+		@Override
+		public int prefix(Token op, int arg) {
+			return add(new PrefixExpressionNode(op, expression(arg)));
+		}
+		
+		@Override
+		public int literal(Token token) {
+			return add(new LiteralExpressionNode(token));
+		}
+		
+		@Override
+		public int call(Token id) {
+			return add(new FunctionCallExpressionNode(id));
+		}
+		
+		@Override
+		public int error(Diagnostic diagnostic) {
+			return add(new ErrorNode(diagnostic));
+		}
+		
+		@Override
+		public void setSpan(int node, int padding, int length) {
+			nodes.get(node).setSpan(padding, length);
+		}
+		
+	}
+	
+	private static final class Recovery extends RuntimeException {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private static final Recovery INSTANCE = new Recovery();
+		
+		private Recovery() {
+			super(null, null, false, false);
+		}
+		
+	}
+	
 }
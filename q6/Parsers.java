@@ -0,0 +1,36 @@
+
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class Parsers {
+
+	private static final Path NO_FILE = Paths.get("-");
+	private static final ThreadLocal<Parsers> LOCAL = ThreadLocal.withInitial(Parsers::new);
+
+	private Lexer lexer = new Lexer(NO_FILE, "");
+	private Lexer parserLexer = new Lexer(NO_FILE, "");
+	private Parser parser = new Parser(parserLexer);
+
+	public static Lexer lexer(CharSequence input) {
+		return lexer(NO_FILE, input);
+	}
+
+	public static Lexer lexer(Path file, CharSequence input) {
+		Lexer lexer = LOCAL.get().lexer;
+		lexer.reset(file, input);
+		return lexer;
+	}
+
+	public static Parser parser(CharSequence input) {
+		return parser(NO_FILE, input);
+	}
+
+	public static Parser parser(Path file, CharSequence input) {
+		Parsers local = LOCAL.get();
+		local.parserLexer.reset(file, input);
+		local.parser.reset(local.parserLexer);
+		return local.parser;
+	}
+
+}
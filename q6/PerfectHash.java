@@ -0,0 +1,60 @@
+
+
+final class PerfectHash {
+
+	private String[] keys;
+	private TokenType[] values;
+	private int mask;
+	private int lengthFactor;
+	private int firstFactor;
+	
+	PerfectHash(String[] keys, TokenType[] values) {
+		for (int size = Integer.highestOneBit(keys.length * 2 - 1) << 1; ; size <<= 1) {
+			for (int a = 1; a < 64; a++) {
+				for (int b = 0; b < 64; b++) {
+					if (tryBuild(keys, values, size, a, b))
+						return;
+				}
+			}
+		}
+	}
+	
+	private boolean tryBuild(String[] keys, TokenType[] values, int size, int a, int b) {
+		String[] table = new String[size];
+		TokenType[] types = new TokenType[size];
+		for (int i = 0; i < keys.length; i++) {
+			String key = keys[i];
+			int h = hash(key.length(), key.charAt(0), key.charAt(key.length() - 1), a, b, size - 1);
+			if (table[h] != null)
+				return false;
+			table[h] = key;
+			types[h] = values[i];
+		}
+		this.keys = table;
+		this.values = types;
+		this.mask = size - 1;
+		this.lengthFactor = a;
+		this.firstFactor = b;
+		return true;
+	}
+	
+	private static int hash(int length, char first, char last, int a, int b, int mask) {
+		return (length * a + first * b + last) & mask;
+	}
+	
+	TokenType get(CharSequence input, int start, int end) {
+		int length = end - start;
+		int h = hash(length, input.charAt(start), input.charAt(end - 1), lengthFactor, firstFactor, mask);
+		String key = keys[h];
+		if (key == null || key.length() != length)
+			return null;
+		for (int i = 1; i < length - 1; i++) {
+			if (key.charAt(i) != input.charAt(start + i))
+				return null;
+		}
+		if (key.charAt(0) != input.charAt(start) || key.charAt(length - 1) != input.charAt(end - 1))
+			return null;
+		return values[h];
+	}
+	
+}
@@ -0,0 +1,113 @@
+
+
+public class PieceText implements CharSequence {
+
+	private static final int MAX_PIECES = 64;
+
+	private CharSequence[] sources;
+	private int[] starts;
+	private int[] ends;
+	private int count;
+	private int last;
+
+	public PieceText(CharSequence text) {
+		this(new CharSequence[] { text }, new int[] { 0 }, new int[] { text.length() }, 1);
+	}
+
+	private PieceText(CharSequence[] sources, int[] starts, int[] ends, int count) {
+		this.sources = sources;
+		this.starts = starts;
+		this.ends = ends;
+		this.count = count;
+	}
+
+	public PieceText replace(int start, int end, CharSequence replacement) {
+		int length = length();
+		if (start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+		if (count + 2 > MAX_PIECES)
+			return new PieceText(new StringBuilder(length - (end - start) + replacement.length())
+					.append(this, 0, start)
+					.append(replacement)
+					.append(this, end, length)
+					.toString());
+
+		CharSequence[] newSources = new CharSequence[count + 2];
+		int[] newStarts = new int[count + 2];
+		int[] newEnds = new int[count + 2];
+		int n = 0;
+		int delta = replacement.length() - (end - start);
+		for (int i = 0; i < count; i++) {
+			int pieceStart = i == 0 ? 0 : ends[i - 1];
+			if (pieceStart < start) {
+				newSources[n] = sources[i];
+				newStarts[n] = starts[i];
+				newEnds[n++] = Math.min(ends[i], start);
+			}
+			if (start >= pieceStart && start < ends[i] || i == count - 1 && start == length) {
+				if (replacement.length() > 0) {
+					newSources[n] = replacement.toString();
+					newStarts[n] = 0;
+					newEnds[n++] = start + replacement.length();
+				}
+			}
+			if (ends[i] > end) {
+				int from = Math.max(pieceStart, end);
+				newSources[n] = sources[i];
+				newStarts[n] = starts[i] + from - pieceStart;
+				newEnds[n++] = ends[i] + delta;
+			}
+		}
+		return new PieceText(newSources, newStarts, newEnds, n);
+	}
+
+	@Override
+	public int length() {
+		return count == 0 ? 0 : ends[count - 1];
+	}
+
+	@Override
+	public char charAt(int index) {
+		int piece = last;
+		if (index < (piece == 0 ? 0 : ends[piece - 1]) || index >= ends[piece]) {
+			if (index < 0 || index >= length())
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length());
+			piece = find(index);
+			last = piece;
+		}
+		return sources[piece].charAt(starts[piece] + index - (piece == 0 ? 0 : ends[piece - 1]));
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length() || start > end)
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length());
+		StringBuilder out = new StringBuilder(end - start);
+		for (int i = start == 0 ? 0 : find(start); i < count && start < end; i++) {
+			int pieceStart = i == 0 ? 0 : ends[i - 1];
+			int to = Math.min(ends[i], end);
+			out.append(sources[i], starts[i] + start - pieceStart, starts[i] + to - pieceStart);
+			start = to;
+		}
+		return out.toString();
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length()).toString();
+	}
+
+	private int find(int index) {
+		int low = 0;
+		int high = count - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ends[mid] <= index)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+}
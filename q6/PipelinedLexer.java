@@ -0,0 +1,130 @@
+
+
+import java.util.concurrent.locks.LockSupport;
+
+public class PipelinedLexer implements TokenSource, AutoCloseable {
+
+	private static final int BATCH_SIZE = 256;
+	private static final int SLOTS = 16;
+	private static final int SPINS = 128;
+	private static final long PARK_NANOS = 10_000;
+
+	private TokenSource source;
+	private Token[][] slots = new Token[SLOTS][BATCH_SIZE];
+	private int[] counts = new int[SLOTS];
+	private volatile long head;
+	private volatile long tail;
+	private volatile boolean closed;
+	private volatile boolean done;
+	private volatile Throwable failure;
+	private Thread producer;
+
+	private Token[] batch;
+	private int index;
+	private int count;
+	private boolean last;
+
+	public PipelinedLexer(TokenSource source) {
+		this.source = source;
+		this.producer = new Thread(this::produce, "lexer-pipeline");
+		this.producer.setDaemon(true);
+		this.producer.start();
+	}
+
+	private void produce() {
+		try {
+			int read = BATCH_SIZE;
+			for (long t = 0; read == BATCH_SIZE; t++) {
+				for (int spins = 0; t - head >= SLOTS; spins++) {
+					if (closed)
+						return;
+					pause(spins);
+				}
+				int slot = (int) (t & (SLOTS - 1));
+				Token[] out = slots[slot];
+				read = 0;
+				try {
+					Token token;
+					while (read < BATCH_SIZE && !closed && (token = source.nextToken()) != null)
+						out[read++] = token;
+				} catch (Throwable e) {
+					failure = e;
+				}
+				counts[slot] = read;
+				tail = t + 1;
+			}
+		} finally {
+			done = true;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < count || nextBatch();
+	}
+
+	@Override
+	public Token nextToken() {
+		if (index == count && !nextBatch())
+			return null;
+		return batch[index++];
+	}
+
+	@Override
+	public int nextTokens(Token[] buffer, int offset, int length) {
+		int read = 0;
+		while (read < length && (index < count || nextBatch())) {
+			int n = Math.min(length - read, count - index);
+			System.arraycopy(batch, index, buffer, offset + read, n);
+			index += n;
+			read += n;
+		}
+		return read;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(producer);
+	}
+
+	private boolean nextBatch() {
+		if (batch != null) {
+			batch = null;
+			head = head + 1;
+		}
+		if (last)
+			return finish();
+		long h = head;
+		for (int spins = 0; tail <= h; spins++) {
+			if (closed || (done && tail <= h)) {
+				last = true;
+				return finish();
+			}
+			pause(spins);
+		}
+		int slot = (int) (h & (SLOTS - 1));
+		batch = slots[slot];
+		count = counts[slot];
+		index = 0;
+		last = count < BATCH_SIZE;
+		return count > 0 || nextBatch();
+	}
+
+	private boolean finish() {
+		Throwable failure = this.failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		if (failure != null)
+			throw new IllegalStateException(failure.getMessage(), failure);
+		return false;
+	}
+
+	private static void pause(int spins) {
+		if (spins < SPINS)
+			Thread.onSpinWait();
+		else
+			LockSupport.parkNanos(PARK_NANOS);
+	}
+
+}
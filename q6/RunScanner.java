@@ -0,0 +1,11 @@
+
+
+interface RunScanner {
+
+	int skipWhitespace(char[] chars, int from, int to);
+	
+	int skipIdentifierPart(char[] chars, int from, int to);
+	
+	int skipStringContent(char[] chars, int from, int to);
+	
+}
@@ -0,0 +1,71 @@
+
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class SourceText {
+
+	private Path file;
+	private CharSequence input;
+	private volatile int[] lineStarts;
+	
+	public SourceText(Path file, CharSequence input) {
+		this.file = file;
+		this.input = input;
+	}
+	
+	public Path getFile() {
+		return file;
+	}
+	
+	public CharSequence getInput() {
+		return input;
+	}
+	
+	public int getLine(int offset) {
+		return lineOf(offset) + 1;
+	}
+	
+	public int getCol(int offset) {
+		int[] starts = lineStarts();
+		return offset - starts[lineOf(starts, offset)] + 1;
+	}
+	
+	public SourceMeta getMeta(int offset) {
+		int[] starts = lineStarts();
+		int line = lineOf(starts, offset);
+		return new SourceMeta(file, line + 1, offset - starts[line] + 1);
+	}
+	
+	private int lineOf(int offset) {
+		return lineOf(lineStarts(), offset);
+	}
+	
+	private static int lineOf(int[] starts, int offset) {
+		int line = Arrays.binarySearch(starts, offset);
+		return line >= 0 ? line : -line - 2;
+	}
+	
+	private int[] lineStarts() {
+		int[] starts = lineStarts;
+		if (starts == null)
+			lineStarts = starts = buildLineStarts();
+		return starts;
+	}
+	
+	private int[] buildLineStarts() {
+		CharSequence in = input;
+		int n = in.length();
+		int[] starts = new int[Math.max(16, n / 32)];
+		int count = 1;
+		for (int i = 0; i < n; i++) {
+			if (in.charAt(i) == '\n') {
+				if (count == starts.length)
+					starts = Arrays.copyOf(starts, count * 2);
+				starts[count++] = i + 1;
+			}
+		}
+		return Arrays.copyOf(starts, count);
+	}
+	
+}
@@ -0,0 +1,101 @@
+
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class StreamText implements CharSequence {
+
+	private Reader reader;
+	private char[] buffer;
+	private int base;
+	private int count;
+	private int keep;
+	private boolean eof;
+	private int counted;
+	private int line;
+	private int lineStart;
+	
+	public StreamText(Reader reader, int capacity) {
+		this.reader = reader;
+		this.buffer = new char[capacity];
+		this.line = 1;
+	}
+	
+	@Override
+	public int length() {
+		return base + count;
+	}
+	
+	@Override
+	public char charAt(int index) {
+		if (index < base)
+			throw new IndexOutOfBoundsException("Offset " + index + " has already been discarded");
+		return buffer[index - base];
+	}
+	
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < base || end > base + count || start > end)
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not buffered");
+		return new String(buffer, start - base, end - start);
+	}
+	
+	@Override
+	public String toString() {
+		if (base > 0)
+			throw new IllegalStateException("Offsets before " + base + " have already been discarded");
+		return new String(buffer, 0, count);
+	}
+	
+	public boolean fill(int pos) {
+		try {
+			while (!eof && pos >= base + count) {
+				if (count == buffer.length)
+					compact();
+				int n = reader.read(buffer, count, buffer.length - count);
+				if (n < 0)
+					eof = true;
+				else
+					count += n;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return pos < base + count;
+	}
+	
+	public void release(int pos) {
+		countLines(pos);
+		keep = pos;
+	}
+	
+	public SourceMeta getMeta(Path file, int offset) {
+		countLines(offset);
+		return new SourceMeta(file, line, offset - lineStart + 1);
+	}
+	
+	private void countLines(int pos) {
+		for (int i = counted; i < pos; i++) {
+			if (buffer[i - base] == '\n') {
+				line++;
+				lineStart = i + 1;
+			}
+		}
+		counted = Math.max(counted, pos);
+	}
+	
+	private void compact() {
+		int drop = keep - base;
+		if (drop > 0) {
+			System.arraycopy(buffer, drop, buffer, 0, count - drop);
+			base += drop;
+			count -= drop;
+		}
+		if (count == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+	}
+	
+}
@@ -0,0 +1,101 @@
+
+
+public class StringToken extends Token {
+
+	private String value;
+
+	public StringToken(TokenType type, SourceText text, int offset, int length, String value) {
+		super(type, text, offset, length);
+		this.value = value;
+	}
+
+	public StringToken(TokenType type, String data, int offset, int length, SourceMeta meta, String value) {
+		super(type, data, offset, length, meta);
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static String decode(CharSequence input, int start, int end) {
+		int run = start;
+		while (run < end && input.charAt(run) != '\\')
+			run++;
+		if (run == end)
+			return input.subSequence(start, end).toString();
+		StringBuilder builder = new StringBuilder(end - start);
+		int i = start;
+		while (i < end) {
+			builder.append(input, i, run);
+			i = run;
+			if (i == end)
+				break;
+			i = escape(input, i + 1, end, builder);
+			run = i;
+			while (run < end && input.charAt(run) != '\\')
+				run++;
+		}
+		return builder.toString();
+	}
+
+	private static int escape(CharSequence input, int i, int end, StringBuilder builder) {
+		char c = input.charAt(i++);
+		switch (c) {
+		case 'a':
+			builder.append('\u0007');
+			return i;
+		case 'b':
+			builder.append('\b');
+			return i;
+		case 'f':
+			builder.append('\f');
+			return i;
+		case 'n':
+			builder.append('\n');
+			return i;
+		case 'r':
+			builder.append('\r');
+			return i;
+		case 't':
+			builder.append('\t');
+			return i;
+		case 'v':
+			builder.append('\u000B');
+			return i;
+		case '\\':
+		case '?':
+		case '\'':
+		case '"':
+			builder.append(c);
+			return i;
+		case 'x':
+			return codePoint(input, i, end, Integer.MAX_VALUE, builder);
+		case 'u':
+			return codePoint(input, i, i + 4, 4, builder);
+		case 'U':
+			return codePoint(input, i, i + 8, 8, builder);
+		default:
+			if (c < '0' || c > '7')
+				throw new IllegalStateException("Invalid escape sequence '\\" + c + "'");
+			int value = c - '0';
+			for (int count = 1; count < 3 && i < end && (c = input.charAt(i)) >= '0' && c <= '7'; count++, i++)
+				value = value * 8 + (c - '0');
+			builder.append((char) value);
+			return i;
+		}
+	}
+
+	private static int codePoint(CharSequence input, int i, int end, int maxDigits, StringBuilder builder) {
+		int value = 0;
+		int digit;
+		for (int count = 0; count < maxDigits && i < end && (digit = Character.digit(input.charAt(i), 16)) >= 0; count++, i++) {
+			value = value * 16 + digit;
+			if (value > Character.MAX_CODE_POINT)
+				throw new IllegalStateException("Invalid unicode escape sequence");
+		}
+		builder.appendCodePoint(value);
+		return i;
+	}
+
+}
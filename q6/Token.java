@@ -3,30 +3,95 @@
 public class Token {
 
 	private TokenType type;
+	private SourceText text;
+	private int offset;
+	private int length;
 	private String data;
 	private SourceMeta meta;
 	
 	public Token(TokenType type, String data, SourceMeta meta) {
+		this(type, data, -1, data.length(), meta);
+	}
+	
+	public Token(TokenType type, String data, int offset, int length, SourceMeta meta) {
 		this.type = type;
 		this.data = data;
+		this.offset = offset;
+		this.length = length;
 		this.meta = meta;
 	}
+	
+	public Token(TokenType type, SourceText text, int offset, int length) {
+		this(type, text, offset, length, null);
+	}
+	
+	public Token(TokenType type, SourceText text, int offset, int length, String data) {
+		this.type = type;
+		this.text = text;
+		this.offset = offset;
+		this.length = length;
+		this.data = data;
+	}
 
 	public TokenType getType() {
 		return type;
 	}
 
 	public String getData() {
+		if (data == null)
+			data = data(type, text.getInput(), offset, length);
 		return data;
 	}
+	
+	static boolean isIdentifier(TokenType type) {
+		return type.ordinal() <= TokenType.ID_PRIVATE_HASH.ordinal();
+	}
+	
+	static boolean isNumber(TokenType type) {
+		return type == TokenType.INTEGER_LITERAL || type == TokenType.FLOATING_POINT_LITERAL;
+	}
+	
+	static String data(TokenType type, CharSequence source, int offset, int length) {
+		int end = offset + length;
+		if (type == TokenType.STRING_LITERAL || type == TokenType.CHARACTER_LITERAL) {
+			offset++;
+			end--;
+		} else if ((type == TokenType.INTEGER_LITERAL || type == TokenType.FLOATING_POINT_LITERAL) && isHexWithDigits(source, offset, length)) {
+			offset += 2;
+		}
+		return source.subSequence(offset, end).toString();
+	}
+	
+	private static boolean isHexWithDigits(CharSequence source, int offset, int length) {
+		if (length <= 2 || source.charAt(offset) != '0')
+			return false;
+		char x = source.charAt(offset + 1);
+		return (x == 'x' || x == 'X') && source.charAt(offset + 2) != '.';
+	}
+	
+	public int getOffset() {
+		return offset;
+	}
+	
+	public int getLength() {
+		return length;
+	}
 
+	void shift(SourceText text, int delta) {
+		this.text = text;
+		this.offset += delta;
+		this.meta = null;
+	}
+	
 	public SourceMeta getMeta() {
+		if (meta == null)
+			meta = text.getMeta(offset);
 		return meta;
 	}
 	
 	@Override
 	public String toString() {
-		return type.toString() + "[" + meta + "]: " + data;
+		return type.toString() + "[" + getMeta() + "]: " + getData();
 	}
 	
 }
@@ -0,0 +1,474 @@
+
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class TokenBuffer {
+
+	private static final TokenType[] TYPES = TokenType.values();
+	private static final NumberSuffix[] SUFFIXES = NumberSuffix.values();
+	private static final int BIG = 0x80;
+	private static final int BYTES_PER_TOKEN = 8;
+
+	private SourceText text;
+	private IdentifierTable identifiers;
+	private boolean tableDriven = true;
+	private boolean diagnosticMode;
+	private boolean generated;
+	private byte[] types;
+	private int[] offsets;
+	private int[] lengths;
+	private int[] numberOffsets;
+	private long[] values;
+	private byte[] suffixes;
+	private NumberDecoder numbers = new NumberDecoder();
+	private int size;
+	private int gapStart;
+	private int gapEnd;
+	private int numberGapStart;
+	private int numberGapEnd;
+	private int textLength;
+	
+	public TokenBuffer(SourceText text, int capacity) {
+		this.text = text;
+		this.identifiers = new IdentifierTable();
+		this.types = new byte[capacity];
+		this.offsets = new int[capacity];
+		this.lengths = new int[capacity];
+		this.numberOffsets = new int[Math.max(4, capacity >> 3)];
+		this.values = new long[numberOffsets.length];
+		this.suffixes = new byte[numberOffsets.length];
+		this.gapEnd = capacity;
+		this.numberGapEnd = numberOffsets.length;
+		this.textLength = text.getInput().length();
+	}
+	
+	static int capacityFor(int length) {
+		return Math.max(16, length / BYTES_PER_TOKEN);
+	}
+	
+	public static TokenBuffer lex(Path file, CharSequence input) {
+		return lex(new Lexer(file, input, true));
+	}
+	
+	public static TokenBuffer lex(Lexer lexer) {
+		if (lexer.isStreaming())
+			throw new IllegalStateException("Cannot buffer tokens of a streaming lexer");
+		SourceText text = lexer.getText();
+		TokenBuffer buffer = new TokenBuffer(text, capacityFor(text.getInput().length()));
+		buffer.tableDriven = lexer.isTableDriven();
+		buffer.diagnosticMode = lexer.isDiagnosticMode();
+		TokenType type;
+		while ((type = lexer.scanToken()) != null)
+			buffer.add(type, lexer.getTokenStart(), lexer.getTokenEnd() - lexer.getTokenStart(), lexer.getNumber());
+		return buffer;
+	}
+	
+	public static TokenBuffer lexGenerated(Path file, CharSequence input) {
+		SourceText text = new SourceText(file, input);
+		TokenBuffer buffer = new TokenBuffer(text, capacityFor(input.length()));
+		buffer.generated = true;
+		GeneratedLexer lexer = new GeneratedLexer(text, 0, input.length());
+		Token token;
+		while ((token = lexer.nextToken()) != null)
+			buffer.add(token.getType(), token.getOffset(), token.getLength());
+		return buffer;
+	}
+	
+	public void edit(int offset, int removedLength, CharSequence inserted) {
+		CharSequence old = text.getInput();
+		if (offset < 0 || removedLength < 0 || offset + removedLength > old.length())
+			throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removedLength) + ") out of bounds for length " + old.length());
+		int removedEnd = offset + removedLength;
+		int insertedEnd = offset + inserted.length();
+		int delta = inserted.length() - removedLength;
+		PieceText input = (old instanceof PieceText ? (PieceText) old : new PieceText(old)).replace(offset, removedEnd, inserted);
+		
+		int kept = firstEndingAtOrAfter(offset);
+		int tail = kept;
+		while (tail < size && getOffset(tail) < removedEnd)
+			tail++;
+		
+		int from = kept == 0 ? 0 : getOffset(kept - 1) + getLength(kept - 1);
+		TokenBuffer relexed;
+		boolean synced = false;
+		if (generated) {
+			relexed = new TokenBuffer(new SourceText(text.getFile(), input), 16);
+			GeneratedLexer lexer = new GeneratedLexer(relexed.text, from, input.length());
+			Token token;
+			while ((token = lexer.nextToken()) != null) {
+				int start = token.getOffset();
+				if (start >= insertedEnd && (tail = resync(tail, start, delta)) < size && getOffset(tail) + delta == start) {
+					synced = true;
+					break;
+				}
+				relexed.add(token.getType(), start, token.getLength());
+			}
+		} else {
+			Lexer lexer = new Lexer(text.getFile(), input, tableDriven);
+			lexer.setDiagnosticMode(diagnosticMode);
+			lexer.seek(from);
+			relexed = new TokenBuffer(lexer.getText(), 16);
+			TokenType type;
+			while ((type = lexer.scanToken()) != null) {
+				int start = lexer.getTokenStart();
+				if (start >= insertedEnd && (tail = resync(tail, start, delta)) < size && getOffset(tail) + delta == start) {
+					synced = true;
+					break;
+				}
+				relexed.add(type, start, lexer.getTokenEnd() - start, lexer.getNumber());
+			}
+		}
+		
+		moveGap(kept);
+		int removed = (synced ? tail : size) - kept;
+		numberGapEnd += countNumbers(gapEnd, gapEnd + removed);
+		gapEnd += removed;
+		size -= removed;
+		text = relexed.text;
+		textLength = input.length();
+		int count = relexed.size;
+		ensureGap(count);
+		System.arraycopy(relexed.types, 0, types, gapStart, count);
+		System.arraycopy(relexed.offsets, 0, offsets, gapStart, count);
+		System.arraycopy(relexed.lengths, 0, lengths, gapStart, count);
+		for (int i = 0; i < count; i++) {
+			if (Token.isIdentifier(TYPES[relexed.types[i]]))
+				identifiers.intern(input, relexed.offsets[i], relexed.offsets[i] + relexed.lengths[i]);
+		}
+		gapStart += count;
+		size += count;
+		int numberCount = relexed.numberGapStart;
+		ensureNumberGap(numberCount);
+		System.arraycopy(relexed.numberOffsets, 0, numberOffsets, numberGapStart, numberCount);
+		System.arraycopy(relexed.values, 0, values, numberGapStart, numberCount);
+		System.arraycopy(relexed.suffixes, 0, suffixes, numberGapStart, numberCount);
+		numberGapStart += numberCount;
+	}
+	
+	private int resync(int tail, int start, int delta) {
+		while (tail < size && getOffset(tail) + delta < start)
+			tail++;
+		return tail;
+	}
+	
+	int firstStartingAtOrAfter(int offset) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getOffset(mid) < offset)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+	
+	private int firstEndingAtOrAfter(int offset) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getOffset(mid) + getLength(mid) < offset)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+	
+	private int slot(int index) {
+		return index < gapStart ? index : index + gapEnd - gapStart;
+	}
+	
+	private int countNumbers(int fromSlot, int toSlot) {
+		int count = 0;
+		for (int i = fromSlot; i < toSlot; i++) {
+			if (Token.isNumber(TYPES[types[i]]))
+				count++;
+		}
+		return count;
+	}
+	
+	private int numberSlot(int slot) {
+		int key = offsets[slot];
+		int low = slot < gapStart ? 0 : numberGapEnd;
+		int high = slot < gapStart ? numberGapStart - 1 : numberOffsets.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = numberOffsets[mid];
+			if (value < key)
+				low = mid + 1;
+			else if (value > key)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		throw new IllegalStateException("No number value at offset " + key);
+	}
+	
+	private void moveGap(int index) {
+		if (index < gapStart) {
+			int count = gapStart - index;
+			int to = gapEnd - count;
+			moveNumberGap(-countNumbers(index, gapStart));
+			System.arraycopy(types, index, types, to, count);
+			System.arraycopy(lengths, index, lengths, to, count);
+			for (int i = count - 1; i >= 0; i--)
+				offsets[to + i] = offsets[index + i] - textLength;
+			gapStart = index;
+			gapEnd = to;
+		} else if (index > gapStart) {
+			int count = index - gapStart;
+			moveNumberGap(countNumbers(gapEnd, gapEnd + count));
+			System.arraycopy(types, gapEnd, types, gapStart, count);
+			System.arraycopy(lengths, gapEnd, lengths, gapStart, count);
+			for (int i = 0; i < count; i++)
+				offsets[gapStart + i] = offsets[gapEnd + i] + textLength;
+			gapStart = index;
+			gapEnd += count;
+		}
+	}
+	
+	private void moveNumberGap(int delta) {
+		if (delta < 0) {
+			int count = -delta;
+			int from = numberGapStart - count;
+			int to = numberGapEnd - count;
+			System.arraycopy(values, from, values, to, count);
+			System.arraycopy(suffixes, from, suffixes, to, count);
+			for (int i = count - 1; i >= 0; i--)
+				numberOffsets[to + i] = numberOffsets[from + i] - textLength;
+			numberGapStart = from;
+			numberGapEnd = to;
+		} else if (delta > 0) {
+			System.arraycopy(values, numberGapEnd, values, numberGapStart, delta);
+			System.arraycopy(suffixes, numberGapEnd, suffixes, numberGapStart, delta);
+			for (int i = 0; i < delta; i++)
+				numberOffsets[numberGapStart + i] = numberOffsets[numberGapEnd + i] + textLength;
+			numberGapStart += delta;
+			numberGapEnd += delta;
+		}
+	}
+	
+	private void ensureGap(int count) {
+		if (gapEnd - gapStart >= count)
+			return;
+		int capacity = Math.max(size + count, types.length + (types.length >> 1) + 1);
+		int tailCount = types.length - gapEnd;
+		int newGapEnd = capacity - tailCount;
+		byte[] newTypes = Arrays.copyOf(types, capacity);
+		int[] newOffsets = Arrays.copyOf(offsets, capacity);
+		int[] newLengths = Arrays.copyOf(lengths, capacity);
+		System.arraycopy(types, gapEnd, newTypes, newGapEnd, tailCount);
+		System.arraycopy(offsets, gapEnd, newOffsets, newGapEnd, tailCount);
+		System.arraycopy(lengths, gapEnd, newLengths, newGapEnd, tailCount);
+		types = newTypes;
+		offsets = newOffsets;
+		lengths = newLengths;
+		gapEnd = newGapEnd;
+	}
+	
+	private void ensureNumberGap(int count) {
+		if (numberGapEnd - numberGapStart >= count)
+			return;
+		int length = numberOffsets.length;
+		int capacity = Math.max(numberGapStart + length - numberGapEnd + count, length + (length >> 1) + 1);
+		int tailCount = length - numberGapEnd;
+		int newGapEnd = capacity - tailCount;
+		int[] newNumberOffsets = Arrays.copyOf(numberOffsets, capacity);
+		long[] newValues = Arrays.copyOf(values, capacity);
+		byte[] newSuffixes = Arrays.copyOf(suffixes, capacity);
+		System.arraycopy(numberOffsets, numberGapEnd, newNumberOffsets, newGapEnd, tailCount);
+		System.arraycopy(values, numberGapEnd, newValues, newGapEnd, tailCount);
+		System.arraycopy(suffixes, numberGapEnd, newSuffixes, newGapEnd, tailCount);
+		numberOffsets = newNumberOffsets;
+		values = newValues;
+		suffixes = newSuffixes;
+		numberGapEnd = newGapEnd;
+	}
+	
+	public void add(TokenType type, int offset, int length) {
+		if (Token.isNumber(type))
+			numbers.decode(type, text.getInput(), offset, offset + length);
+		add(type, offset, length, numbers);
+	}
+	
+	void add(TokenType type, int offset, int length, NumberDecoder number) {
+		moveGap(size);
+		ensureGap(1);
+		types[gapStart] = (byte) type.ordinal();
+		offsets[gapStart] = offset;
+		lengths[gapStart] = length;
+		gapStart++;
+		size++;
+		if (Token.isIdentifier(type))
+			identifiers.intern(text.getInput(), offset, offset + length);
+		if (Token.isNumber(type))
+			addNumber(offset, number.getBits(), (byte) (number.getSuffix().ordinal() | (number.getBigValue() != null ? BIG : 0)));
+	}
+	
+	private void addNumber(int offset, long bits, byte suffix) {
+		ensureNumberGap(1);
+		numberOffsets[numberGapStart] = offset;
+		values[numberGapStart] = bits;
+		suffixes[numberGapStart++] = suffix;
+	}
+	
+	public void addAll(TokenBuffer other, int from, int to) {
+		moveGap(size);
+		ensureGap(to - from);
+		for (int i = from; i < to; i++) {
+			int slot = other.slot(i);
+			int offset = other.getOffset(i);
+			types[gapStart] = other.types[slot];
+			offsets[gapStart] = offset;
+			lengths[gapStart] = other.lengths[slot];
+			gapStart++;
+			if (Token.isIdentifier(TYPES[other.types[slot]]))
+				identifiers.intern(text.getInput(), offset, offset + other.lengths[slot]);
+			if (Token.isNumber(TYPES[other.types[slot]])) {
+				int number = other.numberSlot(slot);
+				addNumber(offset, other.values[number], other.suffixes[number]);
+			}
+		}
+		size += to - from;
+	}
+	
+	public int indexOf(int offset) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = getOffset(mid);
+			if (value < offset)
+				low = mid + 1;
+			else if (value > offset)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+	
+	public SourceText getText() {
+		return text;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public TokenType getType(int index) {
+		return TYPES[types[slot(checkIndex(index))]];
+	}
+	
+	public int getOffset(int index) {
+		int slot = slot(checkIndex(index));
+		return slot < gapStart ? offsets[slot] : offsets[slot] + textLength;
+	}
+	
+	public int getLength(int index) {
+		return lengths[slot(checkIndex(index))];
+	}
+	
+	public String getData(int index) {
+		TokenType type = getType(index);
+		int offset = getOffset(index);
+		int length = getLength(index);
+		if (Token.isIdentifier(type))
+			return identifiers.get(identifiers.find(text.getInput(), offset, offset + length));
+		return Token.data(type, text.getInput(), offset, length);
+	}
+	
+	public SourceMeta getMeta(int index) {
+		return text.getMeta(getOffset(index));
+	}
+	
+	public Token get(int index) {
+		TokenType type = getType(index);
+		int offset = getOffset(index);
+		int length = getLength(index);
+		if (Token.isNumber(type)) {
+			int number = numberSlot(slot(index));
+			BigInteger bigValue = null;
+			if ((suffixes[number] & BIG) != 0) {
+				NumberDecoder decoder = new NumberDecoder();
+				decoder.decode(type, text.getInput(), offset, offset + length);
+				bigValue = decoder.getBigValue();
+			}
+			return new NumberToken(type, text, offset, length, values[number], bigValue, SUFFIXES[suffixes[number] & (BIG - 1)]);
+		}
+		String name = Token.isIdentifier(type) ? getData(index) : null;
+		return new Token(type, text, offset, length, name);
+	}
+	
+	public Stream<Token> stream() {
+		return IntStream.range(0, size).mapToObj(this::get);
+	}
+	
+	public Cursor cursor() {
+		return new Cursor(0, Integer.MAX_VALUE);
+	}
+	
+	public Cursor cursor(int from, int to) {
+		if (from < 0 || from > to || to > size)
+			throw new IndexOutOfBoundsException("Token range [" + from + ", " + to + ") out of bounds for size " + size);
+		return new Cursor(from, to);
+	}
+	
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+		return index;
+	}
+	
+	public class Cursor implements TokenSource {
+		
+		private int index;
+		private int end;
+		
+		private Cursor(int index, int end) {
+			this.index = index;
+			this.end = end;
+		}
+		
+		public int getIndex() {
+			return index;
+		}
+		
+		public void seek(int index) {
+			if (index < 0 || index > size)
+				throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+			this.index = index;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return index < Math.min(end, size);
+		}
+		
+		public TokenType peekType() {
+			return hasNext() ? getType(index) : null;
+		}
+		
+		@Override
+		public Token nextToken() {
+			return hasNext() ? get(index++) : null;
+		}
+		
+		@Override
+		public int nextTokens(Token[] buffer, int offset, int count) {
+			int read = Math.max(0, Math.min(count, Math.min(end, size) - index));
+			for (int i = 0; i < read; i++)
+				buffer[offset + i] = get(index++);
+			return read;
+		}
+		
+	}
+	
+}
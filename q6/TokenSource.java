@@ -0,0 +1,19 @@
+
+
+public interface TokenSource {
+
+	boolean hasNext();
+	
+	Token nextToken();
+	
+	default int nextTokens(Token[] buffer, int offset, int count) {
+		for (int i = 0; i < count; i++) {
+			Token token = nextToken();
+			if (token == null)
+				return i;
+			buffer[offset + i] = token;
+		}
+		return count;
+	}
+	
+}
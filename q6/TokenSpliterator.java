@@ -0,0 +1,97 @@
+
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+class TokenSpliterator implements Spliterator<Token> {
+
+	private static final int MIN_SPLIT = 1 << 16;
+	private static final int CHARS_PER_TOKEN = 4;
+
+	private Lexer lexer;
+	private int end;
+	private int[] splits;
+
+	TokenSpliterator(Lexer lexer, int end) {
+		this(lexer, end, null);
+	}
+
+	private TokenSpliterator(Lexer lexer, int end, int[] splits) {
+		this.lexer = lexer;
+		this.end = end;
+		this.splits = splits;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Token> action) {
+		if (!lexer.hasNext() || lexer.getPosition() >= end)
+			return false;
+		action.accept(lexer.nextToken());
+		return true;
+	}
+
+	@Override
+	public Spliterator<Token> trySplit() {
+		if (lexer.isStreaming())
+			return null;
+		int from = lexer.getPosition();
+		int to = Math.min(end, lexer.getText().getInput().length());
+		if (to - from < 2 * MIN_SPLIT)
+			return null;
+		if (splits == null)
+			splits = splitPoints(lexer.getText().getInput());
+		int i = Arrays.binarySearch(splits, from + (to - from) / 2);
+		if (i < 0)
+			i = -i - 1;
+		if (i == splits.length || splits[i] <= from || splits[i] >= to)
+			return null;
+		int mid = splits[i];
+		TokenSpliterator prefix = new TokenSpliterator(lexer, mid, splits);
+		lexer = lexer.fork(mid);
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		if (lexer.isStreaming())
+			return Long.MAX_VALUE;
+		int to = Math.min(end, lexer.getText().getInput().length());
+		return Math.max(0, to - lexer.getPosition()) / CHARS_PER_TOKEN;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+
+	static int[] splitPoints(CharSequence input) {
+		int[] points = new int[16];
+		int count = 0;
+		int last = 0;
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			char c = input.charAt(i);
+			if (c == '"') {
+				for (i++; i < n && (c = input.charAt(i)) != '"'; i++) {
+					if (c == '\\')
+						i++;
+				}
+			} else if (c == '\'') {
+				if (++i < n && input.charAt(i) == '\\')
+					i++;
+				for (i++; i < n && input.charAt(i) != '\''; i++) {
+					if (input.charAt(i) == '\\')
+						i++;
+				}
+			} else if (c == '\n' && i - last >= MIN_SPLIT) {
+				if (count == points.length)
+					points = Arrays.copyOf(points, count * 2);
+				points[count++] = i + 1;
+				last = i;
+			}
+		}
+		return Arrays.copyOf(points, count);
+	}
+
+}
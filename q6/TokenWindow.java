@@ -0,0 +1,68 @@
+
+
+import java.util.Arrays;
+
+class TokenWindow {
+
+	private static final int BATCH = 32;
+
+	private TokenSource tokens;
+	private Token[] ring;
+	private int mask;
+	private int position;
+	private int filled;
+	private boolean exhausted;
+
+	TokenWindow(TokenSource tokens, int capacity) {
+		if (capacity < BATCH || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("Window capacity must be a power of two of at least " + BATCH);
+		this.tokens = tokens;
+		this.ring = new Token[capacity];
+		this.mask = capacity - 1;
+	}
+
+	void reset(TokenSource tokens) {
+		this.tokens = tokens;
+		Arrays.fill(ring, null);
+		position = 0;
+		filled = 0;
+		exhausted = false;
+	}
+
+	Token peek(int n) {
+		int index = position + n;
+		if (index >= filled && !fill(index))
+			return null;
+		return ring[index & mask];
+	}
+
+	void advance() {
+		if (position < filled || fill(position))
+			position++;
+	}
+
+	int mark() {
+		return position;
+	}
+
+	void reset(int mark) {
+		if (mark > position || mark < filled - ring.length || mark < 0)
+			throw new IllegalStateException("Mark " + mark + " is outside the lookahead window");
+		position = mark;
+	}
+
+	private boolean fill(int index) {
+		if (index - position >= ring.length)
+			throw new IllegalStateException("Lookahead of " + (index - position + 1) + " tokens exceeds the window of " + ring.length);
+		while (filled <= index && !exhausted) {
+			int slot = filled & mask;
+			int count = Math.min(Math.min(BATCH, ring.length - slot), position + ring.length - filled);
+			int read = tokens.nextTokens(ring, slot, count);
+			filled += read;
+			if (read < count)
+				exhausted = true;
+		}
+		return filled > index;
+	}
+
+}
@@ -0,0 +1,42 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DiagnosticModeTest {
+
+	@Test
+	void diagnosticModeResynchronizes() {
+		for (boolean tableDriven : new boolean[] { false, true }) {
+			Lexer lexer = new Lexer(Fixtures.FILE, "$a # $b \"open", tableDriven);
+			lexer.setDiagnosticMode(true);
+			List<TokenType> types = new ArrayList<>();
+			Token token;
+			while ((token = lexer.nextToken()) != null)
+				types.add(token.getType());
+			assertEquals(List.of(TokenType.ID_PUBLIC_SCALAR, TokenType.ERROR, TokenType.ID_PUBLIC_SCALAR, TokenType.ERROR), types);
+			assertEquals(2, lexer.getDiagnostics().size());
+			assertThrows(IllegalStateException.class, () -> Fixtures.describe(new Lexer(Fixtures.FILE, "$a # $b", tableDriven)));
+		}
+	}
+
+	@Test
+	void handAndTableScannersReportTheSameErrors() {
+		for (String input : new String[] { "^", "$ ", "@!", "%", "&", "|", "\"\\q\"", "\"open", "'ab'", "'\\x'", "0x", "0b2", "1e", "0x.p", "Foo", "whilst" }) {
+			List<String> errors = new ArrayList<>();
+			for (boolean tableDriven : new boolean[] { false, true }) {
+				Lexer lexer = new Lexer(Fixtures.FILE, input + " $a", tableDriven);
+				lexer.setDiagnosticMode(true);
+				Fixtures.describe(lexer);
+				Diagnostic diagnostic = lexer.getDiagnostics().get(0);
+				errors.add(diagnostic.getCode() + ": " + diagnostic.getMessage());
+				errors.add(assertThrows(IllegalStateException.class, () -> Fixtures.describe(new Lexer(Fixtures.FILE, input, tableDriven))).getMessage());
+			}
+			assertEquals(errors.subList(0, 2), errors.subList(2, 4), input);
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class Fixtures {
+
+	static final Path FILE = Paths.get("test");
+
+	private Fixtures() {
+	}
+
+	static List<String> describe(TokenSource source) {
+		List<String> out = new ArrayList<>();
+		Token token;
+		while ((token = source.nextToken()) != null)
+			out.add(describe(token));
+		return out;
+	}
+
+	static String describe(Token token) {
+		return token.getType() + "@" + token.getOffset() + "+" + token.getLength();
+	}
+
+	static String corpus(int lines) {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < lines; i++)
+			out.append("while ($a").append(i).append(" && @b) { \"s;\\\"x\" + 0x").append(Integer.toHexString(i)).append(" * 1.5e3; }\n");
+		return out.toString();
+	}
+
+	static List<String> sequential(String input) {
+		return describe(new Lexer(FILE, input, true));
+	}
+
+	static String show(Node node, int anchor) {
+		int start = anchor + node.getPadding();
+		String span = "@" + start + "+" + node.getLength();
+		if (node instanceof ErrorNode)
+			return "<error>" + span;
+		if (node instanceof AssignmentNode) {
+			AssignmentNode assignment = (AssignmentNode) node;
+			return assignment.getId().getData() + " = " + show(assignment.getExpression()) + ";" + span;
+		}
+		if (node instanceof WhileNode) {
+			WhileNode whileNode = (WhileNode) node;
+			return "while " + show(whileNode.getCondition()) + " " + show(whileNode.getContent(), start) + span;
+		}
+		if (node instanceof IfNode) {
+			IfNode ifNode = (IfNode) node;
+			StringBuilder out = new StringBuilder("if " + show(ifNode.getCondition()) + " " + show(ifNode.getContent(), start));
+			int cursor = start + ifNode.getContent().getPadding() + ifNode.getContent().getLength();
+			for (ElseIfNode elseIf : ifNode.getElseIfNodes()) {
+				out.append(" else if ").append(show(elseIf.getCondition())).append(' ').append(show(elseIf.getContent(), cursor));
+				cursor += elseIf.getContent().getPadding() + elseIf.getContent().getLength();
+			}
+			if (ifNode.getElseNode().isPresent())
+				out.append(" else ").append(show(ifNode.getElseNode().get(), cursor));
+			return out + span;
+		}
+		StringBuilder out = new StringBuilder("{");
+		int cursor = start;
+		for (Node child : ((BlockNode) node).getContent()) {
+			out.append(' ').append(show(child, cursor));
+			cursor += child.getPadding() + child.getLength();
+		}
+		return out.append(" }").append(span).toString();
+	}
+
+	static String show(ExpressionNode node) {
+		if (node instanceof BinaryExpressionNode) {
+			BinaryExpressionNode binary = (BinaryExpressionNode) node;
+			return "(" + binary.getOp().getData() + " " + show(binary.getArg0()) + " " + show(binary.getArg1()) + ")";
+		}
+		if (node instanceof PrefixExpressionNode) {
+			PrefixExpressionNode prefix = (PrefixExpressionNode) node;
+			return "(" + prefix.getOp().getData() + show(prefix.getArg()) + ")";
+		}
+		if (node instanceof FunctionCallExpressionNode)
+			return ((FunctionCallExpressionNode) node).getId().getData() + "()";
+		return ((LiteralExpressionNode) node).getContent().getData();
+	}
+
+	static Parser parser(String input) {
+		return new Parser(new GeneratedLexer(FILE, input));
+	}
+
+	static TokenBuffer buffer(String input) {
+		return TokenBuffer.lexGenerated(FILE, input);
+	}
+
+	static String program(long seed, int statements) {
+		Random random = new Random(seed);
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < statements; i++)
+			statement(random, out, 0);
+		return out.toString();
+	}
+
+	private static void statement(Random random, StringBuilder out, int depth) {
+		switch (depth > 3 ? 0 : random.nextInt(5)) {
+		case 0:
+		case 1:
+			out.append("$v").append(random.nextInt(50)).append(" = !").append(random.nextInt(100)).append(" + $w * $f() || \"s\";\n");
+			break;
+		case 2:
+			out.append("while ($c").append(random.nextInt(9)).append(") ");
+			statement(random, out, depth + 1);
+			break;
+		case 3:
+			out.append("if ($c) ");
+			statement(random, out, depth + 1);
+			if (random.nextBoolean()) {
+				out.append(" else if ($d) ");
+				statement(random, out, depth + 1);
+			}
+			if (random.nextBoolean()) {
+				out.append(" else ");
+				statement(random, out, depth + 1);
+			}
+			break;
+		default:
+			out.append("{\n");
+			for (int i = random.nextInt(4); i >= 0; i--)
+				statement(random, out, depth + 1);
+			out.append("}\n");
+			break;
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FlatParserTest {
+
+	@Test
+	void flatAstMatchesObjectTree() {
+		TokenBuffer tokens = Fixtures.buffer(Fixtures.program(3, 200));
+		FlatParser flat = new FlatParser(tokens);
+		int root = flat.parseProgram();
+		assertEquals(Fixtures.show(new Parser(tokens).parseProgram(), 0), Fixtures.show(flat.getAst().toNode(root), 0));
+	}
+
+	@Test
+	void flatParserRecoversLikeTheObjectParser() {
+		TokenBuffer tokens = Fixtures.buffer("$a = 1; $b = ; while ($c +) { $d = 2; } $e = 3; } $f = (1; $g = 4;");
+		Parser parser = new Parser(tokens);
+		parser.setRecovering(true);
+		FlatParser flat = new FlatParser(tokens);
+		flat.setRecovering(true);
+		int root = flat.parseProgram();
+		assertEquals(Fixtures.show(parser.parseProgram(), 0), Fixtures.show(flat.getAst().toNode(root), 0));
+		assertEquals(5, flat.getDiagnostics().size());
+		assertEquals(NodeKind.ERROR, flat.getAst().getKind(flat.getAst().getChild(root, 1)));
+	}
+
+}
@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GeneratedLexerTest {
+
+	static final String[] FRAGMENTS = { "$abc", "$_x1", "@arr", "@_p", "%h", "%_h2", "%1", "$", "@",
+			"while", "if", "else", "whilex", "while1", "x", "String", "Integer", "Character", "Float", "Void", "Strin", "Stringx", "Q",
+			"(", ")", "{", "}", "[", "]", "+", "-", "*", "/", ";", "&&", "||", "&", "|",
+			"0", "07", "08", "089", "123", "1.5", ".5", ".", "1e5", "1.e3", "1e", "1e+", "1.5e-3f", "1f", "0e1", "0.5", "0l", "09.1e2",
+			"12u", "12ul", "12l", "12lL", "12LL", "12llu", "12LLU", "12lu", "12Lu",
+			"0x1F", "0xABu", "0x1p3", "0x1.8p-2L", "0x.8p1", "0x", "0x1.", "0x1.p", "0x1p", "0x.p1", "0xp", "0b101", "0b1LL", "0b2",
+			"\"abc\"", "\"a\\nb\\x41\\u0041\\U00000041\\101\\\"\"", "\"\\q\"", "\"\\x110000\"", "\"\"", "\"abc", "\"\\",
+			"'a'", "'\\n'", "'\\x41'", "'\\101'", "'''", "'ab'", "'\\U00110000'", "'" };
+	static final String SEPARATORS = " \n\tabcXYZ019_.+-&|xXpPeEfFlLuU'\\";
+
+	static List<String> lex(TokenSource source) {
+		List<String> out = new ArrayList<>();
+		try {
+			Token token;
+			while ((token = source.nextToken()) != null)
+				out.add(Fixtures.describe(token));
+		} catch (IllegalStateException e) {
+			out.add(e.getMessage());
+		}
+		return out;
+	}
+
+	@Test
+	void generatedLexerMatchesHandLexer() {
+		Random random = new Random(16);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder input = new StringBuilder();
+			for (int j = random.nextInt(12); j > 0; j--) {
+				input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+				if (random.nextBoolean())
+					input.append(SEPARATORS.charAt(random.nextInt(random.nextInt(4) == 0 ? SEPARATORS.length() : 3)));
+			}
+			String text = input.toString();
+			assertEquals(lex(new Lexer(Fixtures.FILE, text, false)), lex(new GeneratedLexer(Fixtures.FILE, text)), text);
+		}
+	}
+
+	@Test
+	void generatedLexerAcceptsTheGrammarOperators() {
+		String input = "$a = !$b % 2;";
+		assertEquals(List.of("ID_PUBLIC_SCALAR@0+2", "SM_ASSIGN@3+1", "SM_LOGICAL_NOT@5+1", "ID_PUBLIC_SCALAR@6+2", "SM_PERCENT@9+1", "INTEGER_LITERAL@11+1", "SM_SEMICOLON@12+1"),
+				lex(new GeneratedLexer(Fixtures.FILE, input)));
+		assertEquals(List.of("ID_PUBLIC_SCALAR@0+2", "Invalid input ="), lex(new Lexer(Fixtures.FILE, input, false)));
+	}
+
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalParserTest {
+
+	static List<String> tokens(Node node) {
+		List<String> out = new ArrayList<>();
+		tokens(node, out);
+		return out;
+	}
+
+	static void tokens(Node node, List<String> out) {
+		if (node instanceof AssignmentNode) {
+			AssignmentNode assignment = (AssignmentNode) node;
+			out.add(describe(assignment.getId()));
+			tokens(assignment.getExpression(), out);
+		} else if (node instanceof WhileNode) {
+			tokens(((WhileNode) node).getCondition(), out);
+			tokens(((WhileNode) node).getContent(), out);
+		} else if (node instanceof IfNode) {
+			IfNode ifNode = (IfNode) node;
+			tokens(ifNode.getCondition(), out);
+			tokens(ifNode.getContent(), out);
+			for (ElseIfNode elseIf : ifNode.getElseIfNodes()) {
+				tokens(elseIf.getCondition(), out);
+				tokens(elseIf.getContent(), out);
+			}
+			ifNode.getElseNode().ifPresent(elseNode -> tokens(elseNode, out));
+		} else {
+			for (Node child : ((BlockNode) node).getContent())
+				tokens(child, out);
+		}
+	}
+
+	static void tokens(ExpressionNode node, List<String> out) {
+		if (node instanceof BinaryExpressionNode) {
+			BinaryExpressionNode binary = (BinaryExpressionNode) node;
+			tokens(binary.getArg0(), out);
+			out.add(describe(binary.getOp()));
+			tokens(binary.getArg1(), out);
+		} else if (node instanceof PrefixExpressionNode) {
+			out.add(describe(((PrefixExpressionNode) node).getOp()));
+			tokens(((PrefixExpressionNode) node).getArg(), out);
+		} else if (node instanceof FunctionCallExpressionNode) {
+			out.add(describe(((FunctionCallExpressionNode) node).getId()));
+		} else {
+			out.add(describe(((LiteralExpressionNode) node).getContent()));
+		}
+	}
+
+	static String describe(Token token) {
+		SourceMeta meta = token.getMeta();
+		return Fixtures.describe(token) + " " + meta.getLine() + ":" + meta.getCol() + " " + token.getData();
+	}
+
+	@Test
+	void statementsCarrySpans() {
+		String input = "while ($a) { $b = 1; if ($c) $d = 2; else { } }";
+		assertEquals("{ while $a { $b = 1;@13+7 if $c $d = 2;@29+7 else { }@42+3@21+24 }@11+36@0+47 }@0+47",
+				Fixtures.show(Fixtures.parser(input).parseProgram(), 0));
+	}
+
+	@Test
+	void incrementalEditsMatchFullParse() {
+		String[][] edits = { { "{", " $z = 0;" }, { ";", " + $q" }, { " + $w", "" }, { "\n", "\n\n  " }, { "= !", "= 7 - !" }, { "$v", "$_v" } };
+		Random random = new Random(11);
+		IncrementalParser incremental = new IncrementalParser(Fixtures.FILE, Fixtures.program(5, 60));
+		for (int i = 0; i < 1000; i++) {
+			String input = incremental.getInput().toString();
+			String[] edit = edits[random.nextInt(edits.length)];
+			int offset = input.indexOf(edit[0], random.nextInt(input.length()));
+			if (offset < 0)
+				continue;
+			if (edit[0].equals("{"))
+				incremental.edit(offset + 1, 0, edit[1]);
+			else if (edit[0].equals(";"))
+				incremental.edit(offset, 0, edit[1]);
+			else
+				incremental.edit(offset, edit[0].length(), edit[1]);
+			BlockNode expected = Fixtures.parser(incremental.getInput().toString()).parseProgram();
+			assertEquals(Fixtures.show(expected, 0), Fixtures.show(incremental.getProgram(), 0));
+			assertEquals(tokens(expected), tokens(incremental.getProgram()));
+		}
+	}
+
+	@Test
+	void editsReuseTheOtherStatements() {
+		String input = Fixtures.program(5, 60);
+		IncrementalParser incremental = new IncrementalParser(Fixtures.FILE, input);
+		BlockNode program = incremental.getProgram();
+		List<Node> before = new ArrayList<>(program.getContent());
+		int offset = input.indexOf(';', input.length() / 2);
+		assertSame(program, incremental.edit(offset, 0, " + $q"));
+		List<Node> after = program.getContent();
+		assertEquals(before.size(), after.size());
+		int changed = 0;
+		for (int i = 0; i < before.size(); i++) {
+			if (before.get(i) != after.get(i))
+				changed++;
+		}
+		assertTrue(changed <= 1);
+	}
+
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedTextTest {
+
+	@TempDir
+	Path dir;
+
+	static List<String> values(Lexer lexer) {
+		lexer.setDecodeStrings(true);
+		List<String> out = new ArrayList<>();
+		Token token;
+		while ((token = lexer.nextToken()) != null) {
+			SourceMeta meta = token.getMeta();
+			String value = token instanceof StringToken ? ((StringToken) token).getValue() : token.getData();
+			out.add(Fixtures.describe(token) + " " + meta.getLine() + ":" + meta.getCol() + " " + value);
+		}
+		return out;
+	}
+
+	List<String> mapped(String input) throws IOException {
+		Path file = Files.writeString(dir.resolve("input.q6"), input, StandardCharsets.UTF_8);
+		return values(Lexer.map(file, true));
+	}
+
+	@Test
+	void asciiFilesAreMappedInPlace() throws IOException {
+		String input = Fixtures.corpus(500);
+		Path file = Files.writeString(dir.resolve("ascii.q6"), input, StandardCharsets.UTF_8);
+		assertInstanceOf(MappedText.class, MappedText.map(file));
+		assertEquals(values(new Lexer(Fixtures.FILE, input, true)), mapped(input));
+	}
+
+	@Test
+	void utf8FilesLexLikeStrings() throws IOException {
+		String input = Fixtures.corpus(20) + "\"héllo 世\\n\" + 'é' + \"😀\"\n$b + \"ü\\x41\"";
+		assertEquals(values(new Lexer(Fixtures.FILE, input, true)), mapped(input));
+	}
+
+}
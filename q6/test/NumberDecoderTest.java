@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NumberDecoderTest {
+
+	@Test
+	void numbersAreDecoded() {
+		String input = "42 0x2A 052 0b101010 18446744073709551616 1.5e3 0x1.8p1 42LL 2.5f";
+		TokenBuffer edited = TokenBuffer.lex(Fixtures.FILE, "0 " + input);
+		edited.edit(0, 2, "");
+		List<TokenSource> sources = List.of(new Lexer(Fixtures.FILE, input, false), new Lexer(Fixtures.FILE, input, true),
+				new Lexer(Fixtures.FILE, new StringReader(input), true), TokenBuffer.lex(Fixtures.FILE, input).cursor(), edited.cursor());
+		for (TokenSource lexer : sources) {
+			assertEquals(42, ((NumberToken) lexer.nextToken()).getLongValue());
+			assertEquals(42, ((NumberToken) lexer.nextToken()).getLongValue());
+			assertEquals(42, ((NumberToken) lexer.nextToken()).getLongValue());
+			assertEquals(42, ((NumberToken) lexer.nextToken()).getLongValue());
+			NumberToken big = (NumberToken) lexer.nextToken();
+			assertFalse(big.fitsLong());
+			assertEquals(BigInteger.TWO.pow(64), big.getBigValue());
+			assertEquals(1500.0, ((NumberToken) lexer.nextToken()).getDoubleValue());
+			assertEquals(3.0, ((NumberToken) lexer.nextToken()).getDoubleValue());
+			assertEquals(NumberSuffix.LL, ((NumberToken) lexer.nextToken()).getSuffix());
+			NumberToken f = (NumberToken) lexer.nextToken();
+			assertEquals(2.5, f.getDoubleValue());
+			assertEquals(NumberSuffix.F, f.getSuffix());
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelLexerTest {
+
+	@Test
+	void parallelLexerMatchesSequential() {
+		String input = Fixtures.corpus(20000);
+		TokenBuffer buffer = new ParallelLexer(Fixtures.FILE, input, 1 << 16).lex(ForkJoinPool.commonPool());
+		assertEquals(Fixtures.sequential(input), Fixtures.describe(buffer.cursor()));
+	}
+
+}
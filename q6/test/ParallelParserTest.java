@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelParserTest {
+
+	@Test
+	void parallelParseMatchesSequential() {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 40; i++)
+			input.append(i % 2 == 0 ? "while ($z) {\n" : "{\n").append(Fixtures.program(i, 150)).append("}\n");
+		TokenBuffer tokens = Fixtures.buffer(input.toString());
+		String expected = Fixtures.show(new Parser(tokens).parseProgram(), 0);
+		assertEquals(expected, Fixtures.show(new ParallelParser(tokens, 0).parse(ForkJoinPool.commonPool()), 0));
+		assertEquals(expected, Fixtures.show(ParallelParser.parse(tokens), 0));
+	}
+
+	@Test
+	void concurrentBlocksMatchSequential() {
+		StringBuilder input = new StringBuilder();
+		for (int block = 0; block < 64; block++) {
+			input.append("{\n");
+			for (int i = 0; i < 400; i++)
+				input.append("$b").append(block).append('_').append(i).append(" = $x").append(i).append(" + @y").append(block).append(";\n");
+			input.append("}\n");
+		}
+		String text = input.toString();
+		String expected = Fixtures.show(Fixtures.parser(text).parseProgram(), 0);
+		ForkJoinPool pool = new ForkJoinPool(8);
+		try {
+			for (int round = 0; round < 5; round++)
+				assertEquals(expected, Fixtures.show(new ParallelParser(Fixtures.buffer(text), 0).parse(pool), 0));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void blockErrorsAreRethrown() {
+		String input = "{\n" + Fixtures.program(1, 300) + "$a = ;\n}\n";
+		String expected = assertThrows(IllegalStateException.class, () -> Fixtures.parser(input).parseProgram()).getMessage();
+		TokenBuffer tokens = Fixtures.buffer(input);
+		assertEquals(expected, assertThrows(IllegalStateException.class, () -> new ParallelParser(tokens, 0).parse(ForkJoinPool.commonPool())).getMessage());
+	}
+
+}
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+class PipelinedLexerTest {
+
+	@Test
+	void pipelinedLexerMatchesSequential() {
+		String input = Fixtures.corpus(5000);
+		try (PipelinedLexer lexer = new PipelinedLexer(new Lexer(Fixtures.FILE, input, true))) {
+			assertEquals(Fixtures.sequential(input), Fixtures.describe(lexer));
+		}
+	}
+
+	@Test
+	void pipelinedLexerRethrowsProducerErrors() {
+		Lexer source = new Lexer(Fixtures.FILE, Fixtures.corpus(5000), true);
+		TokenSource failing = new TokenSource() {
+			int count;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Token nextToken() {
+				if (++count == 1000)
+					throw new StackOverflowError();
+				return source.nextToken();
+			}
+		};
+		try (PipelinedLexer lexer = new PipelinedLexer(failing)) {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(StackOverflowError.class, () -> Fixtures.describe(lexer)));
+		}
+	}
+
+	@Test
+	void closingThePipelineReleasesTheConsumer() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		TokenSource blocked = new TokenSource() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Token nextToken() {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		};
+		PipelinedLexer lexer = new PipelinedLexer(blocked);
+		try {
+			new Thread(() -> {
+				LockSupport.parkNanos(50_000_000);
+				lexer.close();
+			}).start();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertNull(lexer.nextToken()));
+		} finally {
+			release.countDown();
+		}
+	}
+
+}
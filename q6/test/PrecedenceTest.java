@@ -0,0 +1,14 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PrecedenceTest {
+
+	@Test
+	void expressionsFollowPrecedence() {
+		assertEquals("(|| (|| $a (&& $b $c)) $d)", Fixtures.show(Fixtures.parser("$a || $b && $c || $d").parseExpression()));
+		assertEquals("(- (+ 1 (* 2 3)) (% (/ 4 5) 6))", Fixtures.show(Fixtures.parser("1 + 2 * 3 - 4 / 5 % 6").parseExpression()));
+		assertEquals("(&& (+ (!(!$a)) (* (!$b) 2)) (|| $c $f()))", Fixtures.show(Fixtures.parser("!!$a + !$b * 2 && ($c || $f())").parseExpression()));
+	}
+
+}
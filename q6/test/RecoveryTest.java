@@ -0,0 +1,20 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class RecoveryTest {
+
+	@Test
+	void recoveringParseReportsEveryError() {
+		Parser parser = Fixtures.parser("$a = 1; $b = ; while ($c +) { $d = 2; } $e = 3; } $f = (1; $g = 4;");
+		parser.setRecovering(true);
+		BlockNode program = parser.parseProgram();
+		assertEquals(5, parser.getDiagnostics().size());
+		assertInstanceOf(ErrorNode.class, program.getContent().get(1));
+		assertEquals("$g", ((AssignmentNode) program.getContent().get(program.getContent().size() - 1)).getId().getData());
+		assertThrows(IllegalStateException.class, () -> Fixtures.parser("$a = ;").parseProgram());
+	}
+
+}
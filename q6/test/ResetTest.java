@@ -0,0 +1,28 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ResetTest {
+
+	@Test
+	void resetReusesTheLexer() {
+		Lexer lexer = new Lexer(Fixtures.FILE, "$a $b");
+		Fixtures.describe(lexer);
+		lexer.reset("@c");
+		assertEquals(0, lexer.getIdentifiers().size());
+		assertEquals(List.of("ID_PUBLIC_ARRAY@0+2"), Fixtures.describe(lexer));
+		assertEquals(1, lexer.getIdentifiers().size());
+	}
+
+	@Test
+	void threadLocalLexerAndParserAreIndependent() {
+		Parser parser = Parsers.parser("$a + $b * 2");
+		Lexer lexer = Parsers.lexer("@c");
+		assertEquals(List.of("ID_PUBLIC_ARRAY@0+2"), Fixtures.describe(lexer));
+		assertEquals(1, lexer.getIdentifiers().size());
+		assertEquals("(+ $a (* $b 2))", Fixtures.show(parser.parseExpression()));
+	}
+
+}
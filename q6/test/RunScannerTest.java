@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+@EnabledIfSystemProperty(named = "lexer.vector", matches = "true")
+class RunScannerTest {
+
+	private static final String ALPHABET = " \t\n\r\013\fazAZ_09$@\"\\;{}\u00e9\u0100";
+
+	static boolean isIdentifierPart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (c >= '0' && c <= '9');
+	}
+
+	static char[] chars(Random random, int length, String alphabet) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++)
+			chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+		return chars;
+	}
+
+	@Test
+	void vectorScannerIsLoaded() {
+		assertNotNull(Lexer.runScanner());
+	}
+
+	@Test
+	void vectorRunsMatchScalarLoops() {
+		RunScanner runs = Lexer.runScanner();
+		Random random = new Random(13);
+		String[] alphabets = { ALPHABET, " \t\n\r\013\f$", "azAZ_09 ", "abc\"\\ " };
+		for (int round = 0; round < 200; round++) {
+			char[] chars = chars(random, random.nextInt(200), alphabets[round % alphabets.length]);
+			int to = chars.length == 0 ? 0 : random.nextInt(chars.length + 1);
+			for (int from = 0; from <= to; from++) {
+				int i = from;
+				while (i < to && (chars[i] == ' ' || (chars[i] >= '\t' && chars[i] <= '\r')))
+					i++;
+				assertEquals(i, runs.skipWhitespace(chars, from, to));
+				i = from;
+				while (i < to && isIdentifierPart(chars[i]))
+					i++;
+				assertEquals(i, runs.skipIdentifierPart(chars, from, to));
+				i = from;
+				while (i < to && chars[i] != '"' && chars[i] != '\\')
+					i++;
+				assertEquals(i, runs.skipStringContent(chars, from, to));
+			}
+		}
+	}
+
+	@Test
+	void vectorLexerMatchesScalarLexer() {
+		String input = Fixtures.corpus(2000) + "$long_identifier_name_spanning_several_vectors \"" + "x".repeat(200) + "\\n\"" + " ".repeat(100);
+		for (boolean tableDriven : new boolean[] { false, true }) {
+			Lexer scalar = new Lexer(Fixtures.FILE, new StringBuilder(input), tableDriven);
+			assertEquals(Fixtures.describe(scalar), Fixtures.describe(new Lexer(Fixtures.FILE, input, tableDriven)));
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SourceTextTest {
+
+	@Test
+	void lineIndexIsSharedAcrossThreads() {
+		String input = Fixtures.corpus(20000);
+		SourceText text = new SourceText(Fixtures.FILE, input);
+		List<Integer> lines = IntStream.range(0, input.length()).parallel().map(text::getLine).boxed().collect(Collectors.toList());
+		SourceText expected = new SourceText(Fixtures.FILE, input);
+		assertEquals(IntStream.range(0, input.length()).map(expected::getLine).boxed().collect(Collectors.toList()), lines);
+	}
+
+}
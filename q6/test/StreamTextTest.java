@@ -0,0 +1,29 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class StreamTextTest {
+
+	@Test
+	void streamingLexerMatchesInMemory() {
+		String input = Fixtures.corpus(2000);
+		assertEquals(Fixtures.sequential(input), Fixtures.describe(new Lexer(Fixtures.FILE, new StringReader(input), true)));
+	}
+
+	@Test
+	void streamTextRefusesToPrintDiscardedText() {
+		String input = Fixtures.corpus(2000);
+		StreamText text = new StreamText(new StringReader(input), 64);
+		text.fill(9);
+		assertEquals(input.substring(0, text.length()), text.toString());
+		text.fill(input.length() / 2);
+		text.release(input.length() / 2);
+		text.fill(input.length() - 1);
+		assertEquals(input.length(), text.length());
+		assertThrows(IllegalStateException.class, text::toString);
+	}
+
+}
@@ -0,0 +1,33 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class StringTokenTest {
+
+	@Test
+	void stringsAreDecodedOnRequest() {
+		Lexer lexer = new Lexer(Fixtures.FILE, "\"a\\tb\\x41\\101\\u00e9\\U0001F600\"");
+		lexer.setDecodeStrings(true);
+		Token token = lexer.nextToken();
+		assertInstanceOf(StringToken.class, token);
+		assertEquals("a\tbAA\u00e9\uD83D\uDE00", ((StringToken) token).getValue());
+	}
+
+	@Test
+	void outOfRangeEscapesAreRejected() {
+		for (String input : new String[] { "\"\\x110000\"", "\"\\UFFFFFFFF\"", "'\\U0011FFFF'" }) {
+			for (boolean tableDriven : new boolean[] { false, true }) {
+				assertThrows(IllegalStateException.class, () -> Fixtures.describe(new Lexer(Fixtures.FILE, input, tableDriven)));
+				Lexer lexer = new Lexer(Fixtures.FILE, input + " $a", tableDriven);
+				lexer.setDiagnosticMode(true);
+				lexer.setDecodeStrings(true);
+				assertEquals(TokenType.ERROR, lexer.nextToken().getType());
+				assertEquals(TokenType.ID_PUBLIC_SCALAR, lexer.nextToken().getType());
+				assertEquals(LexError.INVALID_ESCAPE, lexer.getDiagnostics().get(0).getCode());
+			}
+		}
+	}
+
+}
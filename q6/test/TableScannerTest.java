@@ -0,0 +1,13 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TableScannerTest {
+
+	@Test
+	void handAndTableScannersAgree() {
+		String input = "while (@a && %_b || $c) { if (\"s\\n\" + 'c' - 0x1F * 1.5e3f / 077 - 0b101) $d; } else Integer Void";
+		assertEquals(Fixtures.describe(new Lexer(Fixtures.FILE, input, false)), Fixtures.describe(new Lexer(Fixtures.FILE, input, true)));
+	}
+
+}
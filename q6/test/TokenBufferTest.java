@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBufferTest {
+
+	static List<String> values(TokenSource source) {
+		List<String> out = new ArrayList<>();
+		Token token;
+		while ((token = source.nextToken()) != null) {
+			if (token instanceof NumberToken) {
+				NumberToken number = (NumberToken) token;
+				out.add(Fixtures.describe(token) + "=" + (number.fitsLong() ? number.getLongValue() : number.getBigValue()) + number.getSuffix());
+			}
+		}
+		return out;
+	}
+
+	static String numbers(int lines) {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < lines; i++)
+			out.append("$a").append(i).append(" + ").append(i).append(" + 0x").append(Integer.toHexString(i * 31)).append(" * ").append(i).append(".5e1f - 1844674407370955161").append(i % 10).append(";\n");
+		return out.toString();
+	}
+
+	@Test
+	void numberValuesFollowTheirTokens() {
+		String[] inserts = { "", "7", "0x1F", "2.5f", "18446744073709551616", "$x" };
+		Random random = new Random(3);
+		String input = numbers(200);
+		TokenBuffer buffer = TokenBuffer.lex(Fixtures.FILE, input);
+		for (int i = 0; i < 1000; i++) {
+			int offset = input.indexOf(' ', random.nextInt(input.length()));
+			if (offset < 0)
+				continue;
+			int removed = random.nextInt(2);
+			String insert = " " + inserts[random.nextInt(inserts.length)] + " ";
+			buffer.edit(offset, removed, insert);
+			input = input.substring(0, offset) + insert + input.substring(offset + removed);
+			if (i % 100 == 0)
+				assertEquals(values(new Lexer(Fixtures.FILE, input, true)), values(buffer.cursor()));
+		}
+		assertEquals(values(new Lexer(Fixtures.FILE, input, true)), values(buffer.cursor()));
+	}
+
+	@Test
+	void parallelChunksKeepNumberValues() {
+		String input = numbers(2000);
+		TokenBuffer buffer = new ParallelLexer(Fixtures.FILE, input, 1 << 12).lex(ForkJoinPool.commonPool());
+		assertEquals(values(new Lexer(Fixtures.FILE, input, true)), values(buffer.cursor()));
+	}
+
+	@Test
+	void editedBufferMatchesRelex() {
+		String input = Fixtures.corpus(200);
+		TokenBuffer buffer = TokenBuffer.lex(Fixtures.FILE, input);
+		int offset = input.indexOf("@b", input.length() / 2);
+		buffer.edit(offset, 2, "$x + @y");
+		String expected = input.substring(0, offset) + "$x + @y" + input.substring(offset + 2);
+		assertEquals(Fixtures.sequential(expected), Fixtures.describe(buffer.cursor()));
+	}
+
+	@Test
+	void repeatedEditsMatchRelex() {
+		String[] inserts = { "", " ", "$x", " + 0x1F", "\"s;\"", "{ $y; }", "\n" };
+		Random random = new Random(7);
+		String input = Fixtures.corpus(300);
+		TokenBuffer buffer = TokenBuffer.lex(Fixtures.FILE, input);
+		for (int i = 0; i < 2000; i++) {
+			int offset = input.indexOf(' ', random.nextInt(input.length()));
+			if (offset < 0)
+				continue;
+			int removed = random.nextInt(2);
+			String insert = " " + inserts[random.nextInt(inserts.length)] + " ";
+			buffer.edit(offset, removed, insert);
+			input = input.substring(0, offset) + insert + input.substring(offset + removed);
+			assertEquals(input, buffer.getText().getInput().toString());
+			if (i % 100 == 0)
+				assertEquals(Fixtures.sequential(input), Fixtures.describe(buffer.cursor()));
+		}
+		assertEquals(Fixtures.sequential(input), Fixtures.describe(buffer.cursor()));
+	}
+
+	@Test
+	void editsRelexWithTheOriginalSettings() {
+		String input = Fixtures.corpus(50);
+		Lexer lexer = new Lexer(Fixtures.FILE, input, false);
+		lexer.setDiagnosticMode(true);
+		TokenBuffer buffer = TokenBuffer.lex(lexer);
+		int offset = input.indexOf("@b");
+		buffer.edit(offset, 0, "# ");
+		assertEquals(TokenType.ERROR, buffer.getType(buffer.indexOf(offset)));
+
+		TokenBuffer strict = TokenBuffer.lex(Fixtures.FILE, input);
+		List<String> before = Fixtures.describe(strict.cursor());
+		assertThrows(IllegalStateException.class, () -> strict.edit(offset, 0, "# "));
+		assertEquals(input, strict.getText().getInput().toString());
+		assertEquals(before, Fixtures.describe(strict.cursor()));
+	}
+
+}
@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class TokenSpliteratorTest {
+
+	@Test
+	void parallelStreamMatchesSequential() {
+		String input = Fixtures.corpus(20000);
+		List<String> tokens = new Lexer(Fixtures.FILE, input, true).tokens().parallel().map(Fixtures::describe).collect(Collectors.toList());
+		assertEquals(Fixtures.sequential(input), tokens);
+	}
+
+	@Test
+	void parallelStreamKeepsDiagnosticMode() {
+		String input = Fixtures.corpus(20000).replace("@b", "# @b");
+		Lexer lexer = new Lexer(Fixtures.FILE, input, true);
+		lexer.setDiagnosticMode(true);
+		List<String> tokens = lexer.tokens().parallel().map(Fixtures::describe).collect(Collectors.toList());
+		Lexer expected = new Lexer(Fixtures.FILE, input, true);
+		expected.setDiagnosticMode(true);
+		assertEquals(Fixtures.describe(expected), tokens);
+	}
+
+	@Test
+	void hasNextIsFalseAtTrailingWhitespace() {
+		Lexer lexer = new Lexer(Fixtures.FILE, "$a  \n\t ");
+		assertTrue(lexer.hasNext());
+		lexer.nextToken();
+		assertFalse(lexer.hasNext());
+	}
+
+}
@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenWindowTest {
+
+	static TokenWindow window(String input, int capacity) {
+		return new TokenWindow(new Lexer(Fixtures.FILE, input, true), capacity);
+	}
+
+	@Test
+	void peekReachesTheWholeWindow() {
+		String input = Fixtures.corpus(100);
+		List<String> expected = Fixtures.sequential(input);
+		TokenWindow window = window(input, 64);
+		for (int start = 0; start < 300; start += 37) {
+			for (int k = 63; k >= 0; k--)
+				assertEquals(expected.get(start + k), Fixtures.describe(window.peek(k)));
+			for (int i = 0; i < 37; i++)
+				window.advance();
+		}
+		assertThrows(IllegalStateException.class, () -> window.peek(64));
+	}
+
+	@Test
+	void peekPastTheEndIsNull() {
+		TokenWindow window = window("$a + $b", 32);
+		assertEquals("SM_PLUS@3+1", Fixtures.describe(window.peek(1)));
+		assertNull(window.peek(3));
+		assertNull(window.peek(31));
+		for (int i = 0; i < 5; i++)
+			window.advance();
+		assertEquals(3, window.mark());
+		assertNull(window.peek(0));
+	}
+
+	@Test
+	void resetReplaysFromTheMark() {
+		String input = Fixtures.corpus(100);
+		List<String> expected = Fixtures.sequential(input);
+		TokenWindow window = window(input, 64);
+		for (int round = 0; round < 20; round++) {
+			int mark = window.mark();
+			for (int i = 0; i < 20; i++)
+				window.advance();
+			window.peek(11);
+			window.reset(mark);
+			assertEquals(expected.get(mark), Fixtures.describe(window.peek(0)));
+			for (int i = 0; i < 25; i++)
+				window.advance();
+		}
+		assertEquals(expected.get(500), Fixtures.describe(window.peek(0)));
+	}
+
+	@Test
+	void overwrittenMarksAreRejected() {
+		TokenWindow window = window(Fixtures.corpus(100), 32);
+		int mark = window.mark();
+		for (int i = 0; i < 20; i++)
+			window.advance();
+		window.reset(mark);
+		for (int i = 0; i < 40; i++)
+			window.advance();
+		assertThrows(IllegalStateException.class, () -> window.reset(mark));
+		int ahead = window.mark() + 1;
+		assertThrows(IllegalStateException.class, () -> window.reset(ahead));
+		assertThrows(IllegalStateException.class, () -> window.reset(-1));
+	}
+
+	@Test
+	void capacityMustBeAPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> window("$a", 48));
+		assertThrows(IllegalArgumentException.class, () -> window("$a", 16));
+	}
+
+	@Test
+	void parserPeekAndResetRoundTrip() {
+		String input = "$a = 1 + 2 * $b; $c = \"s\"; $d = $e();";
+		Parser expected = Fixtures.parser(input);
+		String first = Fixtures.show(expected.parseAssignmentStatement(), 0);
+		String second = Fixtures.show(expected.parseAssignmentStatement(), 0);
+
+		Parser parser = Fixtures.parser(input);
+		assertEquals("SM_ASTERISK@11+1", Fixtures.describe(parser.peek(5)));
+		int mark = parser.mark();
+		assertEquals(first, Fixtures.show(parser.parseAssignmentStatement(), 0));
+		assertEquals("SM_SEMICOLON@25+1", Fixtures.describe(parser.peek(3)));
+		parser.reset(mark);
+		assertEquals(first, Fixtures.show(parser.parseAssignmentStatement(), 0));
+		assertEquals(second, Fixtures.show(parser.parseAssignmentStatement(), 0));
+		assertThrows(IllegalStateException.class, () -> parser.peek(64));
+		assertThrows(IllegalStateException.class, () -> parser.reset(parser.mark() + 1));
+	}
+
+}
@@ -0,0 +1,64 @@
+
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorRunScanner implements RunScanner {
+
+	private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+	
+	@Override
+	public int skipWhitespace(char[] chars, int from, int to) {
+		int i = from;
+		for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+			ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+			VectorMask<Short> ws = v.compare(VectorOperators.EQ, (short) ' ')
+					.or(v.compare(VectorOperators.GE, (short) '\t').and(v.compare(VectorOperators.LE, (short) '\r')));
+			int k = ws.not().firstTrue();
+			if (k < SPECIES.length())
+				return i + k;
+		}
+		while (i < to && (chars[i] == ' ' || (chars[i] >= '\t' && chars[i] <= '\r')))
+			i++;
+		return i;
+	}
+	
+	@Override
+	public int skipIdentifierPart(char[] chars, int from, int to) {
+		int i = from;
+		for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+			ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+			ShortVector lower = v.or((short) 0x20);
+			VectorMask<Short> part = lower.compare(VectorOperators.GE, (short) 'a').and(lower.compare(VectorOperators.LE, (short) 'z'))
+					.or(v.compare(VectorOperators.GE, (short) '0').and(v.compare(VectorOperators.LE, (short) '9')))
+					.or(v.compare(VectorOperators.EQ, (short) '_'));
+			int k = part.not().firstTrue();
+			if (k < SPECIES.length())
+				return i + k;
+		}
+		while (i < to && isIdentifierPart(chars[i]))
+			i++;
+		return i;
+	}
+	
+	@Override
+	public int skipStringContent(char[] chars, int from, int to) {
+		int i = from;
+		for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+			ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+			int k = v.compare(VectorOperators.EQ, (short) '"').or(v.compare(VectorOperators.EQ, (short) '\\')).firstTrue();
+			if (k < SPECIES.length())
+				return i + k;
+		}
+		while (i < to && chars[i] != '"' && chars[i] != '\\')
+			i++;
+		return i;
+	}
+	
+	private boolean isIdentifierPart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (c >= '0' && c <= '9');
+	}
+	
+}
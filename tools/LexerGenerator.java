@@ -0,0 +1,678 @@
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LexerGenerator {
+
+	private static final Pattern TERMINAL = Pattern.compile("^([A-Z][A-Z_]*)\\s*=\\s*(?:\"([^\"]+)\"|\\?([^?]*)\\?)\\s*;\\s*$");
+	private static final String SIGILS = "$@%";
+	private static final String[] SIGIL_NAMES = { "scalar", "array", "hash" };
+	private static final String DIGITS = "0123456789";
+
+	private static class Node {
+		private TreeMap<Character, Node> children = new TreeMap<>();
+		private String type;
+		private boolean word;
+	}
+
+	private String specName;
+	private String className;
+	private boolean sourceText;
+	private boolean checkEscapes;
+	private Node literals = new Node();
+	private boolean keywords;
+	private boolean types;
+	private boolean identifiers;
+	private boolean strings;
+	private boolean characters;
+	private boolean numbers;
+	private StringBuilder out = new StringBuilder();
+
+	public LexerGenerator(String specName, String className, boolean sourceText, boolean checkEscapes) {
+		this.specName = specName;
+		this.className = className;
+		this.sourceText = sourceText;
+		this.checkEscapes = checkEscapes;
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean sourceText = false;
+		boolean checkEscapes = false;
+		int i = 0;
+		for (; i < args.length && args[i].startsWith("--"); i++) {
+			if (args[i].equals("--source-text"))
+				sourceText = true;
+			else if (args[i].equals("--check-escapes"))
+				checkEscapes = true;
+			else
+				break;
+		}
+		if (args.length - i != 3) {
+			System.err.println("usage: LexerGenerator [--source-text] [--check-escapes] <grammar> <output.java> <class>");
+			System.exit(1);
+		}
+		Path spec = Paths.get(args[i]);
+		LexerGenerator generator = new LexerGenerator(spec.getFileName().toString(), args[i + 2], sourceText, checkEscapes);
+		for (String line : Files.readAllLines(spec, StandardCharsets.UTF_8))
+			generator.terminal(line.trim());
+		Files.write(Paths.get(args[i + 1]), generator.generate().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void terminal(String line) {
+		Matcher m = TERMINAL.matcher(line);
+		if (!m.matches())
+			return;
+		String name = m.group(1);
+		String literal = m.group(2);
+		if (literal != null) {
+			addLiteral(name, literal);
+			return;
+		}
+		switch (name) {
+		case "ID":
+			identifiers = true;
+			break;
+		case "STRING_LITERAL":
+			strings = true;
+			break;
+		case "CHARACTER_LITERAL":
+			characters = true;
+			break;
+		case "INTEGER_LITERAL":
+		case "FLOATING_POINT_LITERAL":
+			numbers = true;
+			break;
+		default:
+			throw new IllegalStateException("No built-in scanner for terminal " + name);
+		}
+	}
+
+	private void addLiteral(String name, String literal) {
+		boolean word = Character.isLetter(literal.charAt(0));
+		Node node = literals;
+		for (char c : literal.toCharArray())
+			node = node.children.computeIfAbsent(c, k -> new Node());
+		if (node.type != null)
+			throw new IllegalStateException("Duplicate terminal \"" + literal + "\"");
+		node.type = word ? (name.startsWith("TYPE_") ? name : "KW_" + name) : "SM_" + name;
+		node.word = word;
+		if (word && name.startsWith("TYPE_"))
+			types = true;
+		else if (word)
+			keywords = true;
+	}
+
+	public String generate() {
+		line(0, "// Generated by LexerGenerator from " + specName + ". Do not edit.");
+		line(0, "");
+		line(0, "import java.nio.file.Path;");
+		line(0, "");
+		line(0, "public class " + className + (sourceText ? " implements TokenSource" : "") + " {");
+		line(0, "");
+		if (sourceText) {
+			line(1, "private SourceText text;");
+		} else {
+			line(1, "private Path file;");
+			line(1, "private int line = 1;");
+			line(1, "private int col = 1;");
+			line(1, "private int counted;");
+		}
+		line(1, "private CharSequence input;");
+		line(1, "private int length;");
+		line(1, "private int current;");
+		line(1, "private int start;");
+		line(1, "");
+		line(1, "public " + className + "(Path file, CharSequence input) {");
+		line(2, sourceText ? "this.text = new SourceText(file, input);" : "this.file = file;");
+		line(2, "this.input = input;");
+		line(2, "this.length = input.length();");
+		line(1, "}");
+		line(1, "");
+		if (sourceText) {
+			line(1, "public " + className + "(SourceText text, int offset, int end) {");
+			line(2, "this.text = text;");
+			line(2, "this.input = text.getInput();");
+			line(2, "this.length = end;");
+			line(2, "this.current = offset;");
+			line(1, "}");
+			line(1, "");
+		}
+		line(1, "public Path getFile() {");
+		line(2, sourceText ? "return text.getFile();" : "return file;");
+		line(1, "}");
+		line(1, "");
+		block(COMMON);
+		tokenFactory();
+		scan();
+		if (identifiers)
+			block(IDENTIFIER);
+		if (numbers)
+			block(NUMBER);
+		if (strings)
+			block(STRING);
+		if (characters)
+			block(CHARACTER);
+		if (strings || characters) {
+			block(ESCAPE);
+			block(checkEscapes ? CHECKED_HEX_ESCAPES : HEX_ESCAPES);
+		}
+		line(0, "}");
+		return out.toString();
+	}
+
+	private void tokenFactory() {
+		line(1, "private Token token(TokenType type) {");
+		if (sourceText) {
+			line(2, "return new Token(type, text, start, current - start);");
+			line(1, "}");
+			line(1, "");
+			return;
+		}
+		line(2, "for (; counted < start; counted++) {");
+		line(3, "if (input.charAt(counted) == '\\n') {");
+		line(4, "line++;");
+		line(4, "col = 1;");
+		line(3, "} else {");
+		line(4, "col++;");
+		line(3, "}");
+		line(2, "}");
+		line(2, "int from = start;");
+		line(2, "int to = current;");
+		if (strings || characters) {
+			List<String> quoted = new ArrayList<>();
+			if (strings)
+				quoted.add("type == TokenType.STRING_LITERAL");
+			if (characters)
+				quoted.add("type == TokenType.CHARACTER_LITERAL");
+			line(2, "if (" + String.join(" || ", quoted) + ") {");
+			line(3, "from++;");
+			line(3, "to--;");
+			line(2, "}");
+		}
+		if (numbers) {
+			line(2, "if ((type == TokenType.INTEGER_LITERAL || type == TokenType.FLOATING_POINT_LITERAL) && to - from > 2");
+			line(4, "&& (input.charAt(from + 1) == 'x' || input.charAt(from + 1) == 'X') && input.charAt(from + 2) != '.')");
+			line(3, "from += 2;");
+		}
+		line(2, "return new Token(type, input.subSequence(from, to).toString(), new SourceMeta(file, line, col));");
+		line(1, "}");
+		line(1, "");
+	}
+
+	private void scan() {
+		TreeSet<Character> firsts = new TreeSet<>(literals.children.keySet());
+		if (identifiers)
+			for (char c : SIGILS.toCharArray())
+				firsts.add(c);
+		if (numbers) {
+			for (char c : DIGITS.toCharArray())
+				firsts.add(c);
+			firsts.add('.');
+		}
+		if (strings)
+			firsts.add('"');
+		if (characters)
+			firsts.add('\'');
+
+		Map<String, List<Character>> cases = new LinkedHashMap<>();
+		for (char c : firsts)
+			cases.computeIfAbsent(caseBody(c), k -> new ArrayList<>()).add(c);
+
+		line(1, "private TokenType scan() {");
+		line(2, "char c = input.charAt(current);");
+		line(2, "switch (c) {");
+		for (Map.Entry<String, List<Character>> entry : cases.entrySet()) {
+			for (char c : entry.getValue())
+				line(2, "case " + quote(c) + ":");
+			out.append(entry.getKey());
+		}
+		line(2, "}");
+		if (keywords) {
+			line(2, "if (c >= 'a' && c <= 'z')");
+			line(3, "throw new IllegalStateException(\"Invalid keyword \" + word());");
+		}
+		if (types) {
+			line(2, "if (c >= 'A' && c <= 'Z')");
+			line(3, "throw new IllegalStateException(\"Invalid type \" + word());");
+		}
+		line(2, "throw new IllegalStateException(\"Invalid input \" + c);");
+		line(1, "}");
+		line(1, "");
+	}
+
+	private String caseBody(char c) {
+		StringBuilder saved = out;
+		out = new StringBuilder();
+		boolean returns = false;
+		if (identifiers && SIGILS.indexOf(c) >= 0) {
+			line(3, "if (isIdentifierPart(peek(1)))");
+			line(4, "return identifier(c);");
+		}
+		Node node = literals.children.get(c);
+		if (numbers && c == '.' && node != null) {
+			line(3, "if (isDigit(peek(1)))");
+			line(4, "return number();");
+		}
+		if (node != null)
+			returns = literal(node, 1, 3);
+		if (!returns) {
+			if (numbers && (DIGITS.indexOf(c) >= 0 || c == '.'))
+				line(3, "return number();");
+			else if (strings && c == '"')
+				line(3, "return stringLiteral();");
+			else if (characters && c == '\'')
+				line(3, "return charLiteral();");
+			else if (node != null && isWordStart(node))
+				line(3, "throw new IllegalStateException(\"Invalid " + (firstType(node).startsWith("TYPE_") ? "type" : "keyword") + " \" + word());");
+			else if (identifiers && SIGILS.indexOf(c) >= 0)
+				line(3, "throw new IllegalStateException(\"Invalid " + SIGIL_NAMES[SIGILS.indexOf(c)] + " identifier\");");
+			else if (node != null)
+				line(3, "throw new IllegalStateException(\"Invalid symbol " + (c == '"' || c == '\\' ? "\\" : "") + c + "\");");
+			else
+				line(3, "break;");
+		}
+		String body = out.toString();
+		out = saved;
+		return body;
+	}
+
+	private boolean literal(Node node, int depth, int indent) {
+		if (!node.children.isEmpty()) {
+			line(indent, "switch (peek(" + depth + ")) {");
+			for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+				line(indent, "case " + quote(child.getKey()) + ":");
+				if (!literal(child.getValue(), depth + 1, indent + 1))
+					line(indent + 1, "break;");
+			}
+			line(indent, "}");
+		}
+		if (node.type == null)
+			return false;
+		if (node.word) {
+			line(indent, "if (!isLowercaseLetter(peek(" + depth + "))) {");
+			line(indent + 1, depth == 1 ? "current++;" : "current += " + depth + ";");
+			line(indent + 1, "return TokenType." + node.type + ";");
+			line(indent, "}");
+			return false;
+		}
+		line(indent, depth == 1 ? "current++;" : "current += " + depth + ";");
+		line(indent, "return TokenType." + node.type + ";");
+		return true;
+	}
+
+	private static boolean isWordStart(Node node) {
+		return node.type != null ? node.word : isWordStart(node.children.firstEntry().getValue());
+	}
+
+	private static String firstType(Node node) {
+		return node.type != null ? node.type : firstType(node.children.firstEntry().getValue());
+	}
+
+	private static String quote(char c) {
+		if (c == '\'' || c == '\\')
+			return "'\\" + c + "'";
+		return "'" + c + "'";
+	}
+
+	private void block(String text) {
+		for (String line : text.split("\n", -1)) {
+			if (!line.isEmpty())
+				out.append('\t');
+			out.append(line).append("\r\n");
+		}
+	}
+
+	private void line(int indent, String text) {
+		for (int i = 0; i < indent && !text.isEmpty(); i++)
+			out.append('\t');
+		out.append(text).append("\r\n");
+	}
+
+	private static final String COMMON = """
+		public boolean hasNext() {
+			skipWhitespace();
+			return current < length;
+		}
+
+		public Token nextToken() {
+			skipWhitespace();
+			if (current >= length)
+				return null;
+			start = current;
+			return token(scan());
+		}
+
+		private void skipWhitespace() {
+			char c;
+			while (current < length && ((c = input.charAt(current)) == ' ' || c == '\\t' || c == '\\r' || c == '\\n' || c == '\\013' || c == '\\f'))
+				current++;
+		}
+
+		private char peek(int ahead) {
+			int pos = current + ahead;
+			return pos < length ? input.charAt(pos) : (char) -1;
+		}
+
+		private String word() {
+			int end = current + 1;
+			while (end < length && isLowercaseLetter(input.charAt(end)))
+				end++;
+			return input.subSequence(current, end).toString();
+		}
+
+		private static boolean isLowercaseLetter(char c) {
+			return c >= 'a' && c <= 'z';
+		}
+
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+
+		private static boolean isHexDigit(char c) {
+			return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+		}
+
+		private static boolean isIdentifierPart(char c) {
+			return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || isDigit(c);
+		}
+		""";
+
+	private static final String IDENTIFIER = """
+		private TokenType identifier(char sigil) {
+			boolean isPrivate = input.charAt(current + 1) == '_';
+			current += 2;
+			while (isIdentifierPart(peek(0)))
+				current++;
+			if (sigil == '$')
+				return isPrivate ? TokenType.ID_PRIVATE_SCALAR : TokenType.ID_PUBLIC_SCALAR;
+			else if (sigil == '@')
+				return isPrivate ? TokenType.ID_PRIVATE_ARRAY : TokenType.ID_PUBLIC_ARRAY;
+			else
+				return isPrivate ? TokenType.ID_PRIVATE_HASH : TokenType.ID_PUBLIC_HASH;
+		}
+		""";
+
+	private static final String NUMBER = """
+		private TokenType number() {
+			char c = peek(0);
+			current++;
+			if (c == '.')
+				return decimalFloatWithInitialDot();
+			if (c != '0')
+				return decimalOrDecimalFloat();
+			c = peek(0);
+			if (c == 'x' || c == 'X') {
+				current++;
+				return hexOrHexFloat();
+			} else if (c == 'b' || c == 'B') {
+				current++;
+				return binaryLiteral();
+			}
+			return octalOrDecimalFloat();
+		}
+
+		private TokenType decimalOrDecimalFloat() {
+			char c;
+			while (isDigit(c = peek(0)))
+				current++;
+			if (c == '.') {
+				current++;
+				while (isDigit(peek(0)))
+					current++;
+				if ((c = peek(0)) == 'e' || c == 'E')
+					exponent();
+				floatSuffix();
+				return TokenType.FLOATING_POINT_LITERAL;
+			} else if (c == 'e' || c == 'E') {
+				exponent();
+				floatSuffix();
+				return TokenType.FLOATING_POINT_LITERAL;
+			}
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
+		}
+
+		private TokenType octalOrDecimalFloat() {
+			char c;
+			while ((c = peek(0)) >= '0' && c <= '7')
+				current++;
+			if (isDigit(c) || c == '.') {
+				while (isDigit(c = peek(0)))
+					current++;
+				if (c == '.') {
+					current++;
+					while (isDigit(peek(0)))
+						current++;
+				}
+				if ((c = peek(0)) == 'e' || c == 'E')
+					exponent();
+				floatSuffix();
+				return TokenType.FLOATING_POINT_LITERAL;
+			} else if (c == 'e' || c == 'E') {
+				exponent();
+				floatSuffix();
+				return TokenType.FLOATING_POINT_LITERAL;
+			}
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
+		}
+
+		private TokenType decimalFloatWithInitialDot() {
+			digits();
+			char c = peek(0);
+			if (c == 'e' || c == 'E')
+				exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		}
+
+		private TokenType hexOrHexFloat() {
+			char c = peek(0);
+			if (c == '.') {
+				current++;
+				if (!isHexDigit(peek(0)))
+					throw new IllegalStateException("Invalid hexadecimal floating-point literal");
+				while (isHexDigit(peek(0)))
+					current++;
+				return hexExponent();
+			} else if (!isHexDigit(c)) {
+				throw new IllegalStateException("Invalid hexadecimal integer literal");
+			}
+			while (isHexDigit(c = peek(0)))
+				current++;
+			if (c == '.') {
+				current++;
+				while (isHexDigit(peek(0)))
+					current++;
+			} else if (c != 'p' && c != 'P') {
+				intSuffix();
+				return TokenType.INTEGER_LITERAL;
+			}
+			return hexExponent();
+		}
+
+		private TokenType hexExponent() {
+			char c = peek(0);
+			if (c != 'p' && c != 'P')
+				throw new IllegalStateException("Invalid hexadecimal floating-point literal exponent");
+			exponent();
+			floatSuffix();
+			return TokenType.FLOATING_POINT_LITERAL;
+		}
+
+		private TokenType binaryLiteral() {
+			if (!isBinaryDigit(peek(0)))
+				throw new IllegalStateException("Invalid binary integer literal");
+			while (isBinaryDigit(peek(0)))
+				current++;
+			intSuffix();
+			return TokenType.INTEGER_LITERAL;
+		}
+
+		private void exponent() {
+			current++;
+			char c = peek(0);
+			if (c == '+' || c == '-')
+				current++;
+			digits();
+		}
+
+		private void digits() {
+			if (!isDigit(peek(0)))
+				throw new IllegalStateException("Invalid integer literal");
+			while (isDigit(peek(0)))
+				current++;
+		}
+
+		private void intSuffix() {
+			char c = peek(0);
+			if (c == 'u' || c == 'U') {
+				current++;
+				return;
+			} else if (c != 'l' && c != 'L') {
+				return;
+			}
+			current++;
+			if (peek(0) == c)
+				current++;
+			c = peek(0);
+			if (c == 'u' || c == 'U')
+				current++;
+		}
+
+		private void floatSuffix() {
+			char c = peek(0);
+			if (c == 'f' || c == 'F' || c == 'l' || c == 'L')
+				current++;
+		}
+
+		private static boolean isBinaryDigit(char c) {
+			return c == '0' || c == '1';
+		}
+		""";
+
+	private static final String STRING = """
+		private TokenType stringLiteral() {
+			current++;
+			char c;
+			while ((c = peek(0)) != '"') {
+				if (current >= length)
+					throw new IllegalStateException("Unterminated string literal");
+				current++;
+				if (c == '\\\\')
+					escape();
+			}
+			current++;
+			return TokenType.STRING_LITERAL;
+		}
+		""";
+
+	private static final String CHARACTER = """
+		private TokenType charLiteral() {
+			current++;
+			if (current >= length)
+				throw new IllegalStateException("Invalid character literal");
+			char c = peek(0);
+			current++;
+			if (c == '\\\\')
+				escape();
+			if (peek(0) != '\\'')
+				throw new IllegalStateException("Invalid character literal");
+			current++;
+			return TokenType.CHARACTER_LITERAL;
+		}
+		""";
+
+	private static final String ESCAPE = """
+		private void escape() {
+			char c = peek(0);
+			current++;
+			switch (c) {
+			case 'a':
+			case 'b':
+			case 'f':
+			case 'n':
+			case 'r':
+			case 't':
+			case 'v':
+			case '\\\\':
+			case '?':
+			case '\\'':
+			case '"':
+				return;
+			case 'x':
+				hexEscape();
+				return;
+			case 'u':
+				hexDigits(4);
+				return;
+			case 'U':
+				hexDigits(8);
+				return;
+			default:
+				if (c < '0' || c > '7')
+					throw new IllegalStateException("Invalid escape sequence '\\\\" + c + "'");
+				for (int i = 1; i < 3 && (c = peek(0)) >= '0' && c <= '7'; i++)
+					current++;
+			}
+		}
+		""";
+
+	private static final String HEX_ESCAPES = """
+		private void hexEscape() {
+			if (!isHexDigit(peek(0)))
+				throw new IllegalStateException("Invalid hexadecimal escape sequence");
+			while (isHexDigit(peek(0)))
+				current++;
+		}
+
+		private void hexDigits(int count) {
+			for (int i = 0; i < count; i++) {
+				if (!isHexDigit(peek(0)))
+					throw new IllegalStateException("Invalid unicode escape sequence");
+				current++;
+			}
+		}
+		""";
+
+	private static final String CHECKED_HEX_ESCAPES = """
+		private void hexEscape() {
+			if (!isHexDigit(peek(0)))
+				throw new IllegalStateException("Invalid hexadecimal escape sequence");
+			int value = 0;
+			char c;
+			while (isHexDigit(c = peek(0))) {
+				value = Math.min(value * 16 + Character.digit(c, 16), Character.MAX_CODE_POINT + 1);
+				current++;
+			}
+			if (value > Character.MAX_CODE_POINT)
+				throw new IllegalStateException("Invalid hexadecimal escape sequence");
+		}
+
+		private void hexDigits(int count) {
+			long value = 0;
+			for (int i = 0; i < count; i++) {
+				char c = peek(0);
+				if (!isHexDigit(c))
+					throw new IllegalStateException("Invalid unicode escape sequence");
+				value = value * 16 + Character.digit(c, 16);
+				current++;
+			}
+			if (value > Character.MAX_CODE_POINT)
+				throw new IllegalStateException("Invalid unicode escape sequence");
+		}
+		""";
+
+}
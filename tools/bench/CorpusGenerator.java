@@ -0,0 +1,144 @@
+package bench;
+
+import java.util.Random;
+
+public class CorpusGenerator {
+
+	public static final String[] CORPORA = { "identifiers", "numbers", "strings", "operators", "mixed" };
+	private static final String ESCAPES = "nrtbfv\\\"'?a";
+
+	private boolean q6;
+	private Random random;
+	private StringBuilder out = new StringBuilder();
+
+	public CorpusGenerator(boolean q6, long seed) {
+		this.q6 = q6;
+		this.random = new Random(seed);
+	}
+
+	public String generate(String corpus, int size) {
+		out.setLength(0);
+		int line = 0;
+		while (out.length() < size) {
+			switch (corpus) {
+			case "identifiers":
+				identifier();
+				break;
+			case "numbers":
+				number();
+				break;
+			case "strings":
+				string();
+				break;
+			case "operators":
+				operator();
+				break;
+			default:
+				mixed();
+				break;
+			}
+			out.append(++line % 12 == 0 ? '\n' : ' ');
+		}
+		return out.toString();
+	}
+
+	private void mixed() {
+		int pick = random.nextInt(10);
+		if (pick < 4)
+			identifier();
+		else if (pick < 6)
+			number();
+		else if (pick < 7)
+			string();
+		else if (pick < 9)
+			operator();
+		else
+			word();
+	}
+
+	private void identifier() {
+		out.append("$@%".charAt(random.nextInt(3)));
+		if (random.nextInt(4) == 0)
+			out.append('_');
+		int length = 1 + random.nextInt(12);
+		for (int i = 0; i < length; i++) {
+			int c = random.nextInt(63);
+			out.append(c < 26 ? (char) ('a' + c) : c < 52 ? (char) ('A' + c - 26) : c < 62 ? (char) ('0' + c - 52) : '_');
+		}
+	}
+
+	private void number() {
+		switch (random.nextInt(8)) {
+		case 0:
+			out.append(1 + random.nextInt(9)).append(random.nextInt(1000000));
+			break;
+		case 1:
+			out.append('0').append(Integer.toOctalString(random.nextInt(1 << 20)));
+			break;
+		case 2:
+			out.append(random.nextBoolean() ? "0x" : "0X").append(Long.toHexString(random.nextLong() >>> random.nextInt(60)));
+			break;
+		case 3:
+			out.append("0b").append(Integer.toBinaryString(1 + random.nextInt(1 << 16)));
+			break;
+		case 4:
+			out.append(random.nextInt(100000)).append(random.nextBoolean() ? "u" : random.nextBoolean() ? "l" : "LL");
+			break;
+		case 5:
+			out.append(random.nextInt(1000)).append('.').append(random.nextInt(100000));
+			break;
+		case 6:
+			out.append(random.nextInt(100)).append('.').append(random.nextInt(1000)).append('e').append(random.nextInt(60) - 30)
+				.append(random.nextBoolean() ? "f" : "");
+			break;
+		default:
+			out.append("0x").append(Integer.toHexString(random.nextInt(4096))).append('.')
+				.append(Integer.toHexString(random.nextInt(4096))).append('p').append(random.nextInt(40) - 20);
+			break;
+		}
+	}
+
+	private void string() {
+		out.append('"');
+		int length = random.nextInt(48);
+		for (int i = 0; i < length; i++) {
+			switch (random.nextInt(6)) {
+			case 0:
+				out.append('\\').append(ESCAPES.charAt(random.nextInt(ESCAPES.length())));
+				break;
+			case 1:
+				out.append("\\x").append(Integer.toHexString(random.nextInt(256))).append((char) ('g' + random.nextInt(20)));
+				break;
+			case 2:
+				out.append('\\').append(Integer.toOctalString(random.nextInt(256)));
+				break;
+			case 3:
+				out.append("\\u").append(String.format("%04x", random.nextInt(0xD800)));
+				break;
+			default:
+				out.append((char) ('a' + random.nextInt(26)));
+				break;
+			}
+		}
+		out.append('"');
+		if (random.nextInt(4) == 0)
+			out.append(" '").append(random.nextBoolean() ? "\\n" : "c").append('\'');
+	}
+
+	private void operator() {
+		String[] operators = q6
+				? new String[] { "+", "-", "*", "/", "&&", "||", "(", ")", "{", "}", ";" }
+				: new String[] { "+", "-", "*", "/", "&&", "||", "(", ")", "{", "}", "[", "]" };
+		int count = 1 + random.nextInt(4);
+		for (int i = 0; i < count; i++)
+			out.append(operators[random.nextInt(operators.length)]);
+	}
+
+	private void word() {
+		String[] words = q6
+				? new String[] { "while", "if", "else", "String", "Integer", "Character", "Float", "Void" }
+				: new String[] { "String", "Integer", "Character", "Float", "Void" };
+		out.append(words[random.nextInt(words.length)]);
+	}
+
+}
@@ -0,0 +1,114 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+	private static final Path FILE = Paths.get("bench");
+	private static final MethodHandle NEW_LEXER;
+	private static final MethodHandle NEXT_TOKEN;
+
+	static {
+		try {
+			Class<?> lexer = Class.forName("Lexer");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			NEW_LEXER = lookup.findConstructor(lexer, MethodType.methodType(void.class, Path.class, CharSequence.class, boolean.class))
+					.asType(MethodType.methodType(Object.class, Path.class, CharSequence.class, boolean.class));
+			NEXT_TOKEN = lookup.findVirtual(lexer, "nextToken", MethodType.methodType(Class.forName("Token")))
+					.asType(MethodType.methodType(Object.class, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@Param({ "identifiers", "numbers", "strings", "operators", "mixed" })
+	public String corpus;
+
+	@Param({ "false", "true" })
+	public boolean tableDriven;
+
+	@Param({ "1024" })
+	public int sizeKb;
+
+	private String input;
+	private long bytes;
+	private Object lexer;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+
+		public long tokens;
+		private long bytes;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			tokens = 0;
+			bytes = 0;
+		}
+
+		public double megabytes() {
+			return bytes / 1e6;
+		}
+
+	}
+
+	@Setup
+	public void generate() throws Throwable {
+		boolean q6 = !"q1".equals(System.getProperty("bench.dialect"));
+		input = new CorpusGenerator(q6, 42).generate(corpus, sizeKb * 1024);
+		bytes = input.getBytes(StandardCharsets.UTF_8).length;
+		lexer = (Object) NEW_LEXER.invokeExact(FILE, (CharSequence) input, tableDriven);
+	}
+
+	@Benchmark
+	public void lex(Counters counters, Blackhole blackhole) throws Throwable {
+		Object lexer = (Object) NEW_LEXER.invokeExact(FILE, (CharSequence) input, tableDriven);
+		Object token;
+		long count = 0;
+		while ((token = (Object) NEXT_TOKEN.invokeExact(lexer)) != null) {
+			blackhole.consume(token);
+			count++;
+		}
+		counters.tokens += count;
+		counters.bytes += bytes;
+	}
+
+	@Benchmark
+	public Object nextToken() throws Throwable {
+		Object token = (Object) NEXT_TOKEN.invokeExact(lexer);
+		if (token == null) {
+			lexer = (Object) NEW_LEXER.invokeExact(FILE, (CharSequence) input, tableDriven);
+			token = (Object) NEXT_TOKEN.invokeExact(lexer);
+		}
+		return token;
+	}
+
+}